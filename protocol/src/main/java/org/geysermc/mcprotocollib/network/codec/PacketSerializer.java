@@ -8,4 +8,14 @@ public interface PacketSerializer<T extends Packet> {
     void serialize(ByteBuf buf, T packet);
 
     T deserialize(ByteBuf buf, PacketDefinition<T> definition);
+
+    /**
+     * Estimates the amount of bytes {@link #serialize(ByteBuf, Packet)} writes for the packet,
+     * which is used to size the buffer the packet is written to.
+     *
+     * @return the serialized size of the packet body, or -1 if unknown
+     */
+    default int estimateSize(T packet) {
+        return -1;
+    }
 }
@@ -11,6 +11,7 @@ import org.geysermc.mcprotocollib.network.event.session.PacketErrorEvent;
 import org.geysermc.mcprotocollib.network.packet.Packet;
 import org.geysermc.mcprotocollib.network.packet.PacketProtocol;
 import org.geysermc.mcprotocollib.network.packet.PacketRegistry;
+import org.geysermc.mcprotocollib.network.packet.RawPacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
@@ -40,10 +41,21 @@ public class PacketCodec extends MessageToMessageCodec<ByteBuf, Packet> {
         PacketProtocol packetProtocol = this.session.getPacketProtocol();
         PacketRegistry packetRegistry = packetProtocol.getOutboundPacketRegistry();
         try {
-            int packetId = this.client ? packetRegistry.getServerboundId(packet) : packetRegistry.getClientboundId(packet);
-            PacketDefinition definition = this.client ? packetRegistry.getServerboundDefinition(packetId) : packetRegistry.getClientboundDefinition(packetId);
+            if (packet instanceof RawPacket rawPacket) {
+                ByteBuf content = rawPacket.content();
+                ByteBuf buf = ctx.alloc().buffer(packetProtocol.getPacketHeader().getLengthSize(rawPacket.getId()) + content.readableBytes());
+                packetProtocol.getPacketHeader().writePacketId(buf, rawPacket.getId());
+                buf.writeBytes(content, content.readerIndex(), content.readableBytes());
 
-            ByteBuf buf = ctx.alloc().buffer();
+                out.add(buf);
+                return;
+            }
+
+            PacketDefinition definition = this.client ? packetRegistry.getServerboundDefinition(packet.getClass()) : packetRegistry.getClientboundDefinition(packet.getClass());
+            int packetId = definition.getId();
+
+            int size = definition.getSerializer().estimateSize(packet);
+            ByteBuf buf = size < 0 ? ctx.alloc().buffer() : ctx.alloc().buffer(packetProtocol.getPacketHeader().getLengthSize(packetId) + size);
             packetProtocol.getPacketHeader().writePacketId(buf, packetId);
             definition.getSerializer().serialize(buf, packet);
 
@@ -84,6 +96,12 @@ public class PacketCodec extends MessageToMessageCodec<ByteBuf, Packet> {
 
             log.trace(marker, "Decoding packet with id: {}", id);
 
+            if (!packetProtocol.shouldDecodeInbound(id)) {
+                // Released by the session once the packet has been handled, or by the encoder when it is forwarded
+                out.add(new RawPacket(id, buf.readRetainedSlice(buf.readableBytes())));
+                return;
+            }
+
             packet = this.client ? packetRegistry.createClientboundPacket(id, buf) : packetRegistry.createServerboundPacket(id, buf);
 
             if (buf.readableBytes() > 0) {
@@ -51,4 +51,16 @@ public abstract class PacketProtocol {
      * @return The protocol's outbound packet registry.
      */
     public abstract PacketRegistry getOutboundPacketRegistry();
+
+    /**
+     * Returns whether an inbound packet with the given id in the current inbound state should be decoded.
+     * Packets that are not decoded are passed to listeners as {@link RawPacket}s.
+     * By default, every packet is decoded.
+     *
+     * @param id The id of the inbound packet.
+     * @return Whether the packet should be decoded.
+     */
+    public boolean shouldDecodeInbound(int id) {
+        return true;
+    }
 }
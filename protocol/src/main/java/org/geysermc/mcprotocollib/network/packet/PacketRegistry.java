@@ -1,11 +1,11 @@
 package org.geysermc.mcprotocollib.network.packet;
 
 import io.netty.buffer.ByteBuf;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.geysermc.mcprotocollib.network.codec.PacketDefinition;
 import org.geysermc.mcprotocollib.network.codec.PacketSerializer;
 
+import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.Map;
 
@@ -14,20 +14,35 @@ import java.util.Map;
  * All implementations must have a constructor that takes in a {@link ByteBuf}.
  */
 public class PacketRegistry {
-    private final Int2ObjectMap<PacketDefinition<? extends Packet>> serverbound = new Int2ObjectOpenHashMap<>();
-    private final Int2ObjectMap<PacketDefinition<? extends Packet>> clientbound = new Int2ObjectOpenHashMap<>();
+    /**
+     * The highest packet id that can be registered, the largest id that fits in a two byte VarInt.
+     */
+    public static final int MAX_PACKET_ID = 0x3FFF;
+
+    private static final PacketDefinition<?>[] EMPTY = new PacketDefinition<?>[0];
+
+    // Packet ids are dense and sequential, so definitions are indexed by id directly
+    private PacketDefinition<?>[] serverbound = EMPTY;
+    private PacketDefinition<?>[] clientbound = EMPTY;
 
-    private final Map<Class<? extends Packet>, Integer> clientboundIds = new IdentityHashMap<>();
-    private final Map<Class<? extends Packet>, Integer> serverboundIds = new IdentityHashMap<>();
+    // Registration goes through the maps; lookups by class go through the class values,
+    // which are built on the first lookup after the maps changed
+    private final Map<Class<? extends Packet>, PacketDefinition<?>> clientboundClasses = new IdentityHashMap<>();
+    private final Map<Class<? extends Packet>, PacketDefinition<?>> serverboundClasses = new IdentityHashMap<>();
+
+    private volatile @Nullable ClassValue<PacketDefinition<?>> clientboundByClass;
+    private volatile @Nullable ClassValue<PacketDefinition<?>> serverboundByClass;
 
     /**
      * Clears all currently registered packets.
      */
     public final void clearPackets() {
-        this.serverbound.clear();
-        this.clientbound.clear();
-        this.clientboundIds.clear();
-        this.serverboundIds.clear();
+        this.serverbound = EMPTY;
+        this.clientbound = EMPTY;
+        this.clientboundClasses.clear();
+        this.serverboundClasses.clear();
+        this.clientboundByClass = null;
+        this.serverboundByClass = null;
     }
 
     /**
@@ -72,8 +87,9 @@ public class PacketRegistry {
      * @param definition The packet definition.
      */
     public final void registerServerbound(PacketDefinition<? extends Packet> definition) {
-        this.serverbound.put(definition.getId(), definition);
-        this.serverboundIds.put(definition.getPacketClass(), definition.getId());
+        this.serverbound = put(this.serverbound, definition);
+        this.serverboundClasses.put(definition.getPacketClass(), definition);
+        this.serverboundByClass = null;
     }
 
     /**
@@ -93,8 +109,9 @@ public class PacketRegistry {
      * @param definition The packet definition.
      */
     public final void registerClientbound(PacketDefinition<? extends Packet> definition) {
-        this.clientbound.put(definition.getId(), definition);
-        this.clientboundIds.put(definition.getPacketClass(), definition.getId());
+        this.clientbound = put(this.clientbound, definition);
+        this.clientboundClasses.put(definition.getPacketClass(), definition);
+        this.clientboundByClass = null;
     }
 
     /**
@@ -105,14 +122,8 @@ public class PacketRegistry {
      * @return The created packet.
      * @throws IllegalArgumentException If the packet ID is not registered.
      */
-    @SuppressWarnings("unchecked")
     public Packet createClientboundPacket(int id, ByteBuf buf) {
-        PacketDefinition<?> definition = (PacketDefinition<?>) this.clientbound.get(id);
-        if (definition == null) {
-            throw new IllegalArgumentException("Invalid packet id: " + id);
-        }
-
-        return definition.newInstance(buf);
+        return this.getClientboundDefinition(id).newInstance(buf);
     }
 
     /**
@@ -123,12 +134,7 @@ public class PacketRegistry {
      * @throws IllegalArgumentException If the packet is not registered.
      */
     public int getClientboundId(Class<? extends Packet> packetClass) {
-        Integer packetId = this.clientboundIds.get(packetClass);
-        if (packetId == null) {
-            throw new IllegalArgumentException("Unregistered clientbound packet class: " + packetClass.getName());
-        }
-
-        return packetId;
+        return this.getClientboundDefinition(packetClass).getId();
     }
 
     /**
@@ -150,12 +156,7 @@ public class PacketRegistry {
      * @throws IllegalArgumentException If the packet ID is not registered.
      */
     public Class<? extends Packet> getClientboundClass(int id) {
-        PacketDefinition<?> definition = this.clientbound.get(id);
-        if (definition == null) {
-            throw new IllegalArgumentException("Invalid packet id: " + id);
-        }
-
-        return definition.getPacketClass();
+        return this.getClientboundDefinition(id).getPacketClass();
     }
 
     /**
@@ -166,14 +167,8 @@ public class PacketRegistry {
      * @return The created packet.
      * @throws IllegalArgumentException If the packet ID is not registered.
      */
-    @SuppressWarnings("unchecked")
     public Packet createServerboundPacket(int id, ByteBuf buf) {
-        PacketDefinition<?> definition = (PacketDefinition<?>) this.serverbound.get(id);
-        if (definition == null) {
-            throw new IllegalArgumentException("Invalid packet id: " + id);
-        }
-
-        return definition.newInstance(buf);
+        return this.getServerboundDefinition(id).newInstance(buf);
     }
 
     /**
@@ -184,12 +179,7 @@ public class PacketRegistry {
      * @throws IllegalArgumentException If the packet is not registered.
      */
     public int getServerboundId(Class<? extends Packet> packetClass) {
-        Integer packetId = this.serverboundIds.get(packetClass);
-        if (packetId == null) {
-            throw new IllegalArgumentException("Unregistered serverbound packet class: " + packetClass.getName());
-        }
-
-        return packetId;
+        return this.getServerboundDefinition(packetClass).getId();
     }
 
     /**
@@ -211,12 +201,7 @@ public class PacketRegistry {
      * @throws IllegalArgumentException If the packet ID is not registered.
      */
     public Class<? extends Packet> getServerboundClass(int id) {
-        PacketDefinition<?> definition = this.serverbound.get(id);
-        if (definition == null) {
-            throw new IllegalArgumentException("Invalid packet id: " + id);
-        }
-
-        return definition.getPacketClass();
+        return this.getServerboundDefinition(id).getPacketClass();
     }
 
     /**
@@ -226,7 +211,8 @@ public class PacketRegistry {
      * @return The registered packet's class
      */
     public PacketDefinition<?> getServerboundDefinition(int id) {
-        PacketDefinition<?> definition = this.serverbound.get(id);
+        PacketDefinition<?>[] definitions = this.serverbound;
+        PacketDefinition<?> definition = id >= 0 && id < definitions.length ? definitions[id] : null;
         if (definition == null) {
             throw new IllegalArgumentException("Invalid packet id: " + id);
         }
@@ -234,6 +220,28 @@ public class PacketRegistry {
         return definition;
     }
 
+    /**
+     * Gets the serverbound packet definition for the given packet class.
+     *
+     * @param packetClass The packet class.
+     * @return The registered packet's definition
+     * @throws IllegalArgumentException If the packet is not registered.
+     */
+    public PacketDefinition<?> getServerboundDefinition(Class<? extends Packet> packetClass) {
+        ClassValue<PacketDefinition<?>> byClass = this.serverboundByClass;
+        if (byClass == null) {
+            byClass = classLookup(this.serverboundClasses);
+            this.serverboundByClass = byClass;
+        }
+
+        PacketDefinition<?> definition = byClass.get(packetClass);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unregistered serverbound packet class: " + packetClass.getName());
+        }
+
+        return definition;
+    }
+
     /**
      * Gets the clientbound packet definition for the given packet id.
      *
@@ -241,11 +249,59 @@ public class PacketRegistry {
      * @return The registered packet's class
      */
     public PacketDefinition<?> getClientboundDefinition(int id) {
-        PacketDefinition<?> definition = this.clientbound.get(id);
+        PacketDefinition<?>[] definitions = this.clientbound;
+        PacketDefinition<?> definition = id >= 0 && id < definitions.length ? definitions[id] : null;
         if (definition == null) {
             throw new IllegalArgumentException("Invalid packet id: " + id);
         }
 
         return definition;
     }
+
+    /**
+     * Gets the clientbound packet definition for the given packet class.
+     *
+     * @param packetClass The packet class.
+     * @return The registered packet's definition
+     * @throws IllegalArgumentException If the packet is not registered.
+     */
+    public PacketDefinition<?> getClientboundDefinition(Class<? extends Packet> packetClass) {
+        ClassValue<PacketDefinition<?>> byClass = this.clientboundByClass;
+        if (byClass == null) {
+            byClass = classLookup(this.clientboundClasses);
+            this.clientboundByClass = byClass;
+        }
+
+        PacketDefinition<?> definition = byClass.get(packetClass);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unregistered clientbound packet class: " + packetClass.getName());
+        }
+
+        return definition;
+    }
+
+    private static PacketDefinition<?>[] put(PacketDefinition<?>[] definitions, PacketDefinition<?> definition) {
+        int id = definition.getId();
+        if (id < 0 || id > MAX_PACKET_ID) {
+            throw new IllegalArgumentException("Packet id must be between 0 and " + MAX_PACKET_ID + ", got " + id);
+        }
+
+        if (id >= definitions.length) {
+            // Grown geometrically, so that registering n packets copies O(n) definitions
+            definitions = Arrays.copyOf(definitions, Math.min(Math.max(id + 1, definitions.length << 1), MAX_PACKET_ID + 1));
+        }
+
+        definitions[id] = definition;
+        return definitions;
+    }
+
+    private static ClassValue<PacketDefinition<?>> classLookup(Map<Class<? extends Packet>, PacketDefinition<?>> definitions) {
+        Map<Class<? extends Packet>, PacketDefinition<?>> snapshot = new IdentityHashMap<>(definitions);
+        return new ClassValue<>() {
+            @Override
+            protected PacketDefinition<?> computeValue(Class<?> type) {
+                return snapshot.get(type);
+            }
+        };
+    }
 }
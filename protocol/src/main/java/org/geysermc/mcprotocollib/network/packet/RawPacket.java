@@ -0,0 +1,80 @@
+package org.geysermc.mcprotocollib.network.packet;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+/**
+ * A packet that was not decoded, holding the id and the undecoded body of the packet.
+ * Raw packets are produced for inbound packets that {@link PacketProtocol#shouldDecodeInbound(int)} rejects,
+ * and are written back verbatim when sent.
+ * <p>
+ * Raw packets are reference counted. The session releases a received raw packet once all listeners have been called,
+ * so it must be {@link #retain() retained} to be used afterwards, e.g. when forwarding it to another session.
+ * Sending a raw packet releases it once it has been written.
+ */
+public class RawPacket extends DefaultByteBufHolder implements Packet {
+    private final int id;
+
+    public RawPacket(int id, ByteBuf content) {
+        super(content);
+        this.id = id;
+    }
+
+    /**
+     * Gets the id of the packet in the protocol state it was received in.
+     *
+     * @return The packet id.
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    @Override
+    public RawPacket replace(ByteBuf content) {
+        return new RawPacket(this.id, content);
+    }
+
+    @Override
+    public RawPacket copy() {
+        return (RawPacket) super.copy();
+    }
+
+    @Override
+    public RawPacket duplicate() {
+        return (RawPacket) super.duplicate();
+    }
+
+    @Override
+    public RawPacket retainedDuplicate() {
+        return (RawPacket) super.retainedDuplicate();
+    }
+
+    @Override
+    public RawPacket retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public RawPacket retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public RawPacket touch() {
+        super.touch();
+        return this;
+    }
+
+    @Override
+    public RawPacket touch(Object hint) {
+        super.touch(hint);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "RawPacket(id=" + this.id + ", refCnt=" + this.refCnt() + ")";
+    }
+}
@@ -4,6 +4,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.ReferenceCountUtil;
 import net.kyori.adventure.text.Component;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -47,6 +48,8 @@ public abstract class NetworkSession extends SimpleChannelInboundHandler<Packet>
     protected boolean disconnected = false;
 
     public NetworkSession(SocketAddress remoteAddress, PacketProtocol protocol, Executor packetHandlerExecutor) {
+        // Reference counted packets are released once the listeners have run, which may be on the game thread
+        super(false);
         this.remoteAddress = remoteAddress;
         this.protocol = protocol;
         this.packetHandlerExecutor = packetHandlerExecutor;
@@ -272,9 +275,17 @@ public abstract class NetworkSession extends SimpleChannelInboundHandler<Packet>
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Packet packet) {
         if (packet.shouldRunOnGameThread()) {
-            packetHandlerExecutor.execute(() -> this.callPacketReceived(packet));
+            packetHandlerExecutor.execute(() -> this.handlePacket(packet));
         } else {
+            this.handlePacket(packet);
+        }
+    }
+
+    private void handlePacket(Packet packet) {
+        try {
             this.callPacketReceived(packet);
+        } finally {
+            ReferenceCountUtil.release(packet);
         }
     }
 }
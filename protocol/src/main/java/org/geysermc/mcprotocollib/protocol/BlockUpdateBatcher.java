@@ -0,0 +1,150 @@
+package org.geysermc.mcprotocollib.protocol;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.math.vector.Vector3i;
+import org.geysermc.mcprotocollib.network.Session;
+import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockChangeEntry;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundBlockUpdatePacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundSectionBlocksUpdatePacket;
+
+import java.util.Arrays;
+
+/**
+ * Collects the block changes sent to a session during a tick and sends them as few packets as possible.
+ * Repeated changes to the same position only send the last state. Each section with changes is flushed
+ * as one {@link ClientboundSectionBlocksUpdatePacket}, or as a {@link ClientboundBlockUpdatePacket}
+ * if only one block of it changed.
+ */
+public class BlockUpdateBatcher {
+    private final Session session;
+    private final Long2ObjectMap<Section> sections = new Long2ObjectLinkedOpenHashMap<>();
+
+    public BlockUpdateBatcher(@NonNull Session session) {
+        this.session = session;
+    }
+
+    public synchronized void setBlock(int x, int y, int z, int state) {
+        int chunkX = x >> 4;
+        int chunkY = y >> 4;
+        int chunkZ = z >> 4;
+        long key = sectionKey(chunkX, chunkY, chunkZ);
+        Section section = this.sections.get(key);
+        if (section == null) {
+            section = new Section(chunkX, chunkY, chunkZ);
+            this.sections.put(key, section);
+        }
+
+        section.set(ClientboundSectionBlocksUpdatePacket.packPosition(x & 15, y & 15, z & 15), state);
+    }
+
+    public void setBlock(@NonNull Vector3i position, int state) {
+        this.setBlock(position.getX(), position.getY(), position.getZ(), state);
+    }
+
+    /**
+     * @return whether there are changes waiting to be flushed
+     */
+    public synchronized boolean hasChanges() {
+        return !this.sections.isEmpty();
+    }
+
+    /**
+     * Sends all collected changes to the session, usually at the end of a tick.
+     */
+    public void flush() {
+        Section[] sections;
+        synchronized (this) {
+            if (this.sections.isEmpty()) {
+                return;
+            }
+
+            sections = this.sections.values().toArray(new Section[0]);
+            this.sections.clear();
+        }
+
+        for (Section section : sections) {
+            if (section.size == 1) {
+                short position = section.positions[0];
+                Vector3i blockPosition = Vector3i.from((section.chunkX << 4) + (position >>> 8 & 0xF),
+                        (section.chunkY << 4) + (position & 0xF), (section.chunkZ << 4) + (position >>> 4 & 0xF));
+                this.session.send(new ClientboundBlockUpdatePacket(new BlockChangeEntry(blockPosition, section.states[0])));
+            } else {
+                this.session.send(new ClientboundSectionBlocksUpdatePacket(section.chunkX, section.chunkY, section.chunkZ,
+                        Arrays.copyOf(section.positions, section.size), Arrays.copyOf(section.states, section.size)));
+            }
+        }
+    }
+
+    /**
+     * Drops all collected changes without sending them.
+     */
+    public synchronized void clear() {
+        this.sections.clear();
+    }
+
+    private static long sectionKey(int chunkX, int chunkY, int chunkZ) {
+        // Same layout as the section position of ClientboundSectionBlocksUpdatePacket
+        return (chunkX & 0x3FFFFFL) << 42 | (chunkZ & 0x3FFFFFL) << 20 | chunkY & 0xFFFFFL;
+    }
+
+    private static final class Section {
+        // Sections with few changes are searched linearly, so that they do not need a full index
+        private static final int INDEX_THRESHOLD = 32;
+
+        private final int chunkX;
+        private final int chunkY;
+        private final int chunkZ;
+        // The index of the change at each packed position plus one, or 0 if it did not change
+        private short @Nullable [] indices;
+        private short[] positions = new short[8];
+        private int[] states = new int[8];
+        private int size;
+
+        private Section(int chunkX, int chunkY, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.chunkZ = chunkZ;
+        }
+
+        private void set(short position, int state) {
+            int index = this.indexOf(position);
+            if (index != -1) {
+                this.states[index] = state;
+                return;
+            }
+
+            if (this.size == this.positions.length) {
+                this.positions = Arrays.copyOf(this.positions, this.size << 1);
+                this.states = Arrays.copyOf(this.states, this.size << 1);
+            }
+
+            this.positions[this.size] = position;
+            this.states[this.size++] = state;
+            if (this.indices != null) {
+                this.indices[position] = (short) this.size;
+            } else if (this.size > INDEX_THRESHOLD) {
+                this.indices = new short[4096];
+                for (int i = 0; i < this.size; i++) {
+                    this.indices[this.positions[i]] = (short) (i + 1);
+                }
+            }
+        }
+
+        private int indexOf(short position) {
+            if (this.indices != null) {
+                return this.indices[position] - 1;
+            }
+
+            for (int i = 0; i < this.size; i++) {
+                if (this.positions[i] == position) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+    }
+}
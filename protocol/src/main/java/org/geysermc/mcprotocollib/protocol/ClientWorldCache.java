@@ -0,0 +1,302 @@
+package org.geysermc.mcprotocollib.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.mcprotocollib.network.Session;
+import org.geysermc.mcprotocollib.network.event.session.SessionAdapter;
+import org.geysermc.mcprotocollib.network.packet.Packet;
+import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.ChunkColumn;
+import org.geysermc.mcprotocollib.protocol.data.game.level.LightSection;
+import org.geysermc.mcprotocollib.protocol.data.game.level.LightUpdateData;
+import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockChangeEntry;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.ClientboundRespawnPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundBlockUpdatePacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundForgetLevelChunkPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundLevelChunkWithLightPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundLightUpdatePacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundSectionBlocksUpdatePacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A client-side cache of the chunks sent to a session, kept up to date from chunk, block and light updates.
+ * Add it as a session listener to use it. All methods are thread-safe.
+ * <p>
+ * The height of the dimension is not part of the chunk packets, so it has to be provided through
+ * {@link #setDimension(int, int)}, e.g. from the dimension type registry entry of the current dimension.
+ * All chunks are dropped when the player respawns, as that may change the dimension.
+ * Chunks that do not match the height of the current dimension, e.g. when the dimension has not been updated yet,
+ * are not cached.
+ */
+public class ClientWorldCache extends SessionAdapter {
+    private static final Logger log = LoggerFactory.getLogger(ClientWorldCache.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Long2ObjectMap<Column> columns = new Long2ObjectOpenHashMap<>();
+    private int minY;
+    // Read without the lock to decode chunks outside of it
+    private volatile int sectionCount;
+
+    /**
+     * @param minY the lowest block y coordinate of the dimension
+     * @param height the height of the dimension
+     */
+    public ClientWorldCache(int minY, int height) {
+        this.minY = minY;
+        this.sectionCount = ChunkColumn.sectionCount(height);
+    }
+
+    /**
+     * Changes the dimension chunks are decoded for, dropping all cached chunks.
+     *
+     * @param minY the lowest block y coordinate of the dimension
+     * @param height the height of the dimension
+     */
+    public void setDimension(int minY, int height) {
+        this.lock.writeLock().lock();
+        try {
+            this.minY = minY;
+            this.sectionCount = ChunkColumn.sectionCount(height);
+            this.columns.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void packetReceived(Session session, Packet packet) {
+        if (packet instanceof ClientboundLevelChunkWithLightPacket chunkPacket) {
+            // Decoded before taking the lock, so that readers are only blocked while the column is inserted
+            int sectionCount = this.sectionCount;
+            ChunkColumn blocks = readColumn(chunkPacket, sectionCount);
+            Column column = null;
+            if (blocks != null) {
+                column = new Column(blocks, sectionCount);
+                column.applyLight(chunkPacket.getLightData());
+            }
+
+            this.lock.writeLock().lock();
+            try {
+                long key = key(chunkPacket.getX(), chunkPacket.getZ());
+                if (column == null || sectionCount != this.sectionCount) {
+                    this.columns.remove(key);
+                } else {
+                    this.columns.put(key, column);
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } else if (packet instanceof ClientboundBlockUpdatePacket blockPacket) {
+            this.lock.writeLock().lock();
+            try {
+                BlockChangeEntry entry = blockPacket.getEntry();
+                this.setBlock(entry.getPosition().getX(), entry.getPosition().getY(), entry.getPosition().getZ(), entry.getBlock());
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } else if (packet instanceof ClientboundSectionBlocksUpdatePacket sectionPacket) {
+            this.lock.writeLock().lock();
+            try {
+                for (int i = 0; i < sectionPacket.size(); i++) {
+                    this.setBlock(sectionPacket.getX(i), sectionPacket.getY(i), sectionPacket.getZ(i), sectionPacket.getState(i));
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } else if (packet instanceof ClientboundLightUpdatePacket lightPacket) {
+            this.lock.writeLock().lock();
+            try {
+                Column column = this.columns.get(key(lightPacket.getX(), lightPacket.getZ()));
+                if (column != null) {
+                    column.applyLight(lightPacket.getLightData());
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } else if (packet instanceof ClientboundForgetLevelChunkPacket forgetPacket) {
+            this.lock.writeLock().lock();
+            try {
+                this.columns.remove(key(forgetPacket.getX(), forgetPacket.getZ()));
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } else if (packet instanceof ClientboundRespawnPacket) {
+            this.clear();
+        }
+    }
+
+    /**
+     * Gets a block state by its world coordinates.
+     *
+     * @return the block state, or -1 if the chunk is not loaded or the position is outside of the world
+     */
+    public int getBlock(int x, int y, int z) {
+        this.lock.readLock().lock();
+        try {
+            Column column = this.columns.get(key(x >> 4, z >> 4));
+            int sectionY = (y - this.minY) >> 4;
+            if (column == null || sectionY < 0 || sectionY >= column.blocks.getSectionCount()) {
+                return -1;
+            }
+
+            return column.blocks.getBlock(x & 15, y - this.minY, z & 15);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the light levels of a section by its section coordinates.
+     * Light sections extend one section below and above the world.
+     *
+     * @return the sky light of the section, or null if it is unknown
+     */
+    public @Nullable LightSection getSkyLight(int chunkX, int sectionY, int chunkZ) {
+        this.lock.readLock().lock();
+        try {
+            Column column = this.columns.get(key(chunkX, chunkZ));
+            int index = sectionY - (this.minY >> 4) + 1;
+            return column == null || index < 0 || index >= column.skyLight.length ? null : column.skyLight[index];
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the block light of the section, or null if it is unknown
+     * @see #getSkyLight(int, int, int)
+     */
+    public @Nullable LightSection getBlockLight(int chunkX, int sectionY, int chunkZ) {
+        this.lock.readLock().lock();
+        try {
+            Column column = this.columns.get(key(chunkX, chunkZ));
+            int index = sectionY - (this.minY >> 4) + 1;
+            return column == null || index < 0 || index >= column.blockLight.length ? null : column.blockLight[index];
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded(int chunkX, int chunkZ) {
+        this.lock.readLock().lock();
+        try {
+            return this.columns.get(key(chunkX, chunkZ)) != null;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a snapshot of a chunk column. The snapshot shares its data with the cache until either is modified.
+     *
+     * @return a copy of the chunk column, or null if it is not loaded
+     */
+    public @Nullable ChunkColumn getColumn(int chunkX, int chunkZ) {
+        // Copying marks the cached palettes as shared, which is a write
+        this.lock.writeLock().lock();
+        try {
+            Column column = this.columns.get(key(chunkX, chunkZ));
+            return column == null ? null : new ChunkColumn(column.blocks);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.columns.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        this.lock.writeLock().lock();
+        try {
+            this.columns.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private static @Nullable ChunkColumn readColumn(ClientboundLevelChunkWithLightPacket packet, int sectionCount) {
+        if (packet.getColumn() != null) {
+            ChunkColumn column = packet.readColumn(sectionCount);
+            if (column.getSectionCount() != sectionCount) {
+                log.debug("Dropping chunk {}, {} with {} sections instead of {}", packet.getX(), packet.getZ(), column.getSectionCount(), sectionCount);
+                return null;
+            }
+
+            return column;
+        }
+
+        ByteBuf buf = Unpooled.wrappedBuffer(packet.getChunkData());
+        ChunkColumn column;
+        try {
+            column = MinecraftTypes.readChunkColumn(buf, sectionCount);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            log.debug("Dropping chunk {}, {} that does not match the current dimension", packet.getX(), packet.getZ(), e);
+            return null;
+        }
+
+        if (buf.isReadable()) {
+            log.debug("Dropping chunk {}, {} with {} bytes left after {} sections", packet.getX(), packet.getZ(), buf.readableBytes(), sectionCount);
+            return null;
+        }
+
+        return column;
+    }
+
+    private void setBlock(int x, int y, int z, int state) {
+        Column column = this.columns.get(key(x >> 4, z >> 4));
+        int columnY = y - this.minY;
+        if (column != null && columnY >= 0 && columnY >> 4 < column.blocks.getSectionCount()) {
+            column.blocks.setBlock(x & 15, columnY, z & 15, state);
+        }
+    }
+
+    static long key(int chunkX, int chunkZ) {
+        return chunkX & 0xFFFFFFFFL | (chunkZ & 0xFFFFFFFFL) << 32;
+    }
+
+    private static final class Column {
+        private final ChunkColumn blocks;
+        private final LightSection[] skyLight;
+        private final LightSection[] blockLight;
+
+        private Column(ChunkColumn blocks, int sectionCount) {
+            this.blocks = blocks;
+            // Light is sent for one extra section below and above the world
+            this.skyLight = new LightSection[sectionCount + 2];
+            this.blockLight = new LightSection[sectionCount + 2];
+        }
+
+        private void applyLight(LightUpdateData data) {
+            applyLight(this.skyLight, data.getSkyYMask(), data.getEmptySkyYMask(), data.getSkyLight());
+            applyLight(this.blockLight, data.getBlockYMask(), data.getEmptyBlockYMask(), data.getBlockLight());
+        }
+
+        private static void applyLight(LightSection[] sections, BitSet mask, BitSet emptyMask, List<LightSection> updates) {
+            int update = 0;
+            for (int i = mask.nextSetBit(0); i >= 0 && i < sections.length && update < updates.size(); i = mask.nextSetBit(i + 1)) {
+                // Modifiable sections are copied, as their arrays belong to the packet
+                LightSection section = updates.get(update++);
+                sections[i] = section.isModifiable() ? LightSection.copyOf(section.getData()) : section;
+            }
+
+            for (int i = emptyMask.nextSetBit(0); i >= 0 && i < sections.length; i = emptyMask.nextSetBit(i + 1)) {
+                sections[i] = LightSection.empty();
+            }
+        }
+    }
+}
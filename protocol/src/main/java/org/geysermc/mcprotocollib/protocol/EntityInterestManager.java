@@ -0,0 +1,361 @@
+package org.geysermc.mcprotocollib.protocol;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import lombok.NonNull;
+import org.geysermc.mcprotocollib.network.Session;
+import org.geysermc.mcprotocollib.network.event.session.DisconnectedEvent;
+import org.geysermc.mcprotocollib.network.event.session.SessionAdapter;
+import org.geysermc.mcprotocollib.network.packet.Packet;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundSetChunkCacheCenterPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundSetChunkCacheRadiusPacket;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks which sessions can see which entities on the server side, so that entity packets are only sent to the
+ * sessions observing the entity instead of to everyone.
+ * <p>
+ * Entities are placed in a grid of chunk sized cells, which only exist for chunks that contain entities.
+ * A viewer observes all entities within its view distance, a square of chunks around its center chunk,
+ * the same as the chunks the client keeps loaded. Each cell keeps the viewers that can see it,
+ * so moving an entity within the existing cells only looks at the cells it left and entered.
+ * <p>
+ * When added as a listener of the viewer sessions, the center and view distance of their viewers follow the
+ * {@link ClientboundSetChunkCacheCenterPacket} and {@link ClientboundSetChunkCacheRadiusPacket} sent to them,
+ * and viewers are removed once their session disconnects. The listener is not notified for a disconnected viewer,
+ * as there is no session left to send packets to. All methods are thread-safe.
+ */
+public class EntityInterestManager extends SessionAdapter {
+    private final Listener listener;
+    private final Long2ObjectMap<Cell> cells = new Long2ObjectOpenHashMap<>();
+    private final Map<Session, Viewer> viewers = new HashMap<>();
+    private final Int2ObjectMap<Entity> entities = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * @param listener notified when a session starts or stops observing an entity, e.g. to send spawn and remove packets
+     */
+    public EntityInterestManager(@NonNull Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void packetSent(Session session, Packet packet) {
+        if (packet instanceof ClientboundSetChunkCacheCenterPacket centerPacket) {
+            synchronized (this) {
+                Viewer viewer = this.viewers.get(session);
+                if (viewer != null) {
+                    this.updateView(viewer, centerPacket.getChunkX(), centerPacket.getChunkZ(), viewer.viewDistance);
+                }
+            }
+        } else if (packet instanceof ClientboundSetChunkCacheRadiusPacket radiusPacket) {
+            synchronized (this) {
+                Viewer viewer = this.viewers.get(session);
+                if (viewer != null) {
+                    this.updateView(viewer, viewer.chunkX, viewer.chunkZ, radiusPacket.getViewDistance());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void disconnected(DisconnectedEvent event) {
+        this.removeViewer(event.getSession(), false);
+    }
+
+    /**
+     * Adds a viewer, or moves it if the session already is one.
+     *
+     * @param session the session of the viewer
+     * @param chunkX the x coordinate of the center chunk of the viewer
+     * @param chunkZ the z coordinate of the center chunk of the viewer
+     * @param viewDistance the view distance of the viewer in chunks
+     */
+    public synchronized void addViewer(@NonNull Session session, int chunkX, int chunkZ, int viewDistance) {
+        Viewer viewer = this.viewers.get(session);
+        if (viewer == null) {
+            viewer = new Viewer(session);
+            this.viewers.put(session, viewer);
+        }
+
+        this.updateView(viewer, chunkX, chunkZ, viewDistance);
+    }
+
+    public synchronized void moveViewer(@NonNull Session session, int chunkX, int chunkZ) {
+        Viewer viewer = this.viewers.get(session);
+        if (viewer != null) {
+            this.updateView(viewer, chunkX, chunkZ, viewer.viewDistance);
+        }
+    }
+
+    public synchronized void setViewDistance(@NonNull Session session, int viewDistance) {
+        Viewer viewer = this.viewers.get(session);
+        if (viewer != null) {
+            this.updateView(viewer, viewer.chunkX, viewer.chunkZ, viewDistance);
+        }
+    }
+
+    /**
+     * Removes a viewer, notifying the listener for every entity it stops observing.
+     */
+    public void removeViewer(@NonNull Session session) {
+        this.removeViewer(session, true);
+    }
+
+    /**
+     * Adds an entity, or moves it if it already was added.
+     */
+    public synchronized void addEntity(int entityId, int chunkX, int chunkZ) {
+        if (this.entities.containsKey(entityId)) {
+            this.moveEntity(entityId, chunkX, chunkZ);
+            return;
+        }
+
+        Entity entity = new Entity(entityId, chunkX, chunkZ);
+        this.entities.put(entityId, entity);
+        Cell cell = this.cellWithEntities(chunkX, chunkZ);
+        cell.entities.put(entityId, entity);
+        for (Viewer viewer : cell.viewers) {
+            entity.observers.add(viewer);
+            this.listener.startObserving(viewer.session, entityId);
+        }
+    }
+
+    /**
+     * Moves an entity to another chunk. Moves within the same chunk are ignored.
+     */
+    public synchronized void moveEntity(int entityId, int chunkX, int chunkZ) {
+        Entity entity = this.entities.get(entityId);
+        if (entity == null || entity.chunkX == chunkX && entity.chunkZ == chunkZ) {
+            return;
+        }
+
+        this.removeFromCell(entity);
+        entity.chunkX = chunkX;
+        entity.chunkZ = chunkZ;
+        Cell cell = this.cellWithEntities(chunkX, chunkZ);
+        cell.entities.put(entityId, entity);
+
+        for (Viewer viewer : entity.observers.toArray(new Viewer[0])) {
+            if (!cell.viewers.contains(viewer)) {
+                entity.observers.remove(viewer);
+                this.listener.stopObserving(viewer.session, entityId);
+            }
+        }
+
+        for (Viewer viewer : cell.viewers) {
+            if (entity.observers.add(viewer)) {
+                this.listener.startObserving(viewer.session, entityId);
+            }
+        }
+    }
+
+    /**
+     * Removes an entity, notifying the listener for every session that observed it.
+     */
+    public synchronized void removeEntity(int entityId) {
+        Entity entity = this.entities.remove(entityId);
+        if (entity == null) {
+            return;
+        }
+
+        this.removeFromCell(entity);
+        for (Viewer viewer : entity.observers) {
+            this.listener.stopObserving(viewer.session, entityId);
+        }
+    }
+
+    /**
+     * @return the sessions observing the entity
+     */
+    public synchronized List<Session> getObservers(int entityId) {
+        Entity entity = this.entities.get(entityId);
+        if (entity == null) {
+            return List.of();
+        }
+
+        List<Session> observers = new ArrayList<>(entity.observers.size());
+        for (Viewer viewer : entity.observers) {
+            observers.add(viewer.session);
+        }
+
+        return observers;
+    }
+
+    public synchronized boolean isObserving(@NonNull Session session, int entityId) {
+        Entity entity = this.entities.get(entityId);
+        Viewer viewer = this.viewers.get(session);
+        return entity != null && viewer != null && entity.observers.contains(viewer);
+    }
+
+    /**
+     * Sends a packet to all sessions observing the entity.
+     */
+    public void broadcast(int entityId, @NonNull Packet packet) {
+        // Sent outside of the lock
+        for (Session session : this.getObservers(entityId)) {
+            session.send(packet);
+        }
+    }
+
+    private synchronized void removeViewer(Session session, boolean notify) {
+        Viewer viewer = this.viewers.remove(session);
+        if (viewer == null || !viewer.placed) {
+            return;
+        }
+
+        for (int x = viewer.chunkX - viewer.viewDistance; x <= viewer.chunkX + viewer.viewDistance; x++) {
+            for (int z = viewer.chunkZ - viewer.viewDistance; z <= viewer.chunkZ + viewer.viewDistance; z++) {
+                this.leaveCell(viewer, x, z, notify);
+            }
+        }
+    }
+
+    private void updateView(Viewer viewer, int chunkX, int chunkZ, int viewDistance) {
+        int oldX = viewer.chunkX;
+        int oldZ = viewer.chunkZ;
+        int oldDistance = viewer.viewDistance;
+        boolean wasPlaced = viewer.placed;
+        if (wasPlaced && oldX == chunkX && oldZ == chunkZ && oldDistance == viewDistance) {
+            return;
+        }
+
+        viewer.chunkX = chunkX;
+        viewer.chunkZ = chunkZ;
+        viewer.viewDistance = viewDistance;
+        viewer.placed = true;
+
+        if (wasPlaced) {
+            for (int x = oldX - oldDistance; x <= oldX + oldDistance; x++) {
+                for (int z = oldZ - oldDistance; z <= oldZ + oldDistance; z++) {
+                    if (!inView(x, z, chunkX, chunkZ, viewDistance)) {
+                        this.leaveCell(viewer, x, z, true);
+                    }
+                }
+            }
+        }
+
+        for (int x = chunkX - viewDistance; x <= chunkX + viewDistance; x++) {
+            for (int z = chunkZ - viewDistance; z <= chunkZ + viewDistance; z++) {
+                if (!wasPlaced || !inView(x, z, oldX, oldZ, oldDistance)) {
+                    this.enterCell(viewer, x, z);
+                }
+            }
+        }
+    }
+
+    private void enterCell(Viewer viewer, int chunkX, int chunkZ) {
+        Cell cell = this.cells.get(key(chunkX, chunkZ));
+        if (cell == null) {
+            return;
+        }
+
+        cell.viewers.add(viewer);
+        for (Entity entity : cell.entities.values()) {
+            if (entity.observers.add(viewer)) {
+                this.listener.startObserving(viewer.session, entity.id);
+            }
+        }
+    }
+
+    private void leaveCell(Viewer viewer, int chunkX, int chunkZ, boolean notify) {
+        Cell cell = this.cells.get(key(chunkX, chunkZ));
+        if (cell == null) {
+            return;
+        }
+
+        cell.viewers.remove(viewer);
+        for (Entity entity : cell.entities.values()) {
+            if (entity.observers.remove(viewer) && notify) {
+                this.listener.stopObserving(viewer.session, entity.id);
+            }
+        }
+    }
+
+    private Cell cellWithEntities(int chunkX, int chunkZ) {
+        long key = key(chunkX, chunkZ);
+        Cell cell = this.cells.get(key);
+        if (cell == null) {
+            // Cells only exist where there are entities, so the viewers of a new cell are looked up
+            cell = new Cell();
+            for (Viewer viewer : this.viewers.values()) {
+                if (viewer.placed && inView(chunkX, chunkZ, viewer.chunkX, viewer.chunkZ, viewer.viewDistance)) {
+                    cell.viewers.add(viewer);
+                }
+            }
+
+            this.cells.put(key, cell);
+        }
+
+        return cell;
+    }
+
+    private void removeFromCell(Entity entity) {
+        long key = key(entity.chunkX, entity.chunkZ);
+        Cell cell = this.cells.get(key);
+        cell.entities.remove(entity.id);
+        if (cell.entities.isEmpty()) {
+            this.cells.remove(key);
+        }
+    }
+
+    synchronized int cellCount() {
+        return this.cells.size();
+    }
+
+    private static boolean inView(int x, int z, int centerX, int centerZ, int viewDistance) {
+        return Math.abs(x - centerX) <= viewDistance && Math.abs(z - centerZ) <= viewDistance;
+    }
+
+    private static long key(int chunkX, int chunkZ) {
+        return chunkX & 0xFFFFFFFFL | (chunkZ & 0xFFFFFFFFL) << 32;
+    }
+
+    /**
+     * Notified when a session starts or stops observing an entity. Called while the manager is locked,
+     * so it may send packets but must not call back into the manager from another thread.
+     * Viewers that are removed because their session disconnected stop observing without a notification.
+     */
+    public interface Listener {
+        void startObserving(Session session, int entityId);
+
+        void stopObserving(Session session, int entityId);
+    }
+
+    private static final class Cell {
+        private final Int2ObjectMap<Entity> entities = new Int2ObjectOpenHashMap<>();
+        private final Set<Viewer> viewers = new HashSet<>();
+    }
+
+    private static final class Entity {
+        private final int id;
+        private int chunkX;
+        private int chunkZ;
+        private final Set<Viewer> observers = new HashSet<>();
+
+        private Entity(int id, int chunkX, int chunkZ) {
+            this.id = id;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+    }
+
+    private static final class Viewer {
+        private final Session session;
+        private int chunkX;
+        private int chunkZ;
+        private int viewDistance;
+        private boolean placed;
+
+        private Viewer(Session session) {
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.geysermc.mcprotocollib.protocol;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.BooleanMetadataType;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.ByteMetadataType;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.EntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.EntityMetadataSet;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.FloatMetadataType;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.IntMetadataType;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.LongMetadataType;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.MetadataType;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundSetEntityDataPacket;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the metadata of entities on the server side and tracks which of it changed since it was last sent,
+ * so that {@link ClientboundSetEntityDataPacket}s only contain the changed values.
+ * <p>
+ * Setting a value that equals the current one does not mark it as changed, and values that were changed back
+ * to what was last sent are left out when polling. Values are compared when they are set and polled, so object
+ * values must be replaced instead of being modified in place. New viewers of an entity
+ * should be sent {@link #snapshotPacket(int)} instead, which contains all values. All methods are thread-safe.
+ */
+public class EntityMetadataTracker {
+    private static final EntityMetadata<?, ?>[] EMPTY = new EntityMetadata<?, ?>[0];
+
+    private final Int2ObjectMap<Entity> entities = new Int2ObjectOpenHashMap<>();
+
+    public synchronized void setByte(int entityId, int index, @NonNull ByteMetadataType type, byte value) {
+        Entity entity = this.entity(entityId);
+        if (entity.metadata.setByte(index, type, value)) {
+            entity.markDirty(index);
+        }
+    }
+
+    public synchronized void setInt(int entityId, int index, @NonNull IntMetadataType type, int value) {
+        Entity entity = this.entity(entityId);
+        if (entity.metadata.setInt(index, type, value)) {
+            entity.markDirty(index);
+        }
+    }
+
+    public synchronized void setLong(int entityId, int index, @NonNull LongMetadataType type, long value) {
+        Entity entity = this.entity(entityId);
+        if (entity.metadata.setLong(index, type, value)) {
+            entity.markDirty(index);
+        }
+    }
+
+    public synchronized void setFloat(int entityId, int index, @NonNull FloatMetadataType type, float value) {
+        Entity entity = this.entity(entityId);
+        if (entity.metadata.setFloat(index, type, value)) {
+            entity.markDirty(index);
+        }
+    }
+
+    public synchronized void setBoolean(int entityId, int index, @NonNull BooleanMetadataType type, boolean value) {
+        Entity entity = this.entity(entityId);
+        if (entity.metadata.setBoolean(index, type, value)) {
+            entity.markDirty(index);
+        }
+    }
+
+    public synchronized <T> void set(int entityId, int index, @NonNull MetadataType<T> type, T value) {
+        Entity entity = this.entity(entityId);
+        if (entity.metadata.set(index, type, value)) {
+            entity.markDirty(index);
+        }
+    }
+
+    public synchronized void set(int entityId, @NonNull EntityMetadata<?, ?> metadata) {
+        Entity entity = this.entity(entityId);
+        if (entity.metadata.set(metadata)) {
+            entity.markDirty(metadata.getId());
+        }
+    }
+
+    /**
+     * @return whether the entity has values that changed since they were last polled, including values that were changed back
+     */
+    public synchronized boolean isDirty(int entityId) {
+        Entity entity = this.entities.get(entityId);
+        return entity != null && entity.isDirty();
+    }
+
+    /**
+     * Gets the values of an entity that changed since the last call, and marks them as sent.
+     *
+     * @return the changed values ordered by index, empty if nothing changed
+     */
+    public synchronized EntityMetadata<?, ?>[] pollChanges(int entityId) {
+        Entity entity = this.entities.get(entityId);
+        if (entity == null || !entity.isDirty()) {
+            return EMPTY;
+        }
+
+        EntityMetadata<?, ?>[] changes = new EntityMetadata<?, ?>[entity.dirtyCount()];
+        int count = 0;
+        for (int word = 0; word < entity.dirty.length; word++) {
+            long bits = entity.dirty[word];
+            while (bits != 0) {
+                EntityMetadata<?, ?> value = entity.metadata.get(word << 6 | Long.numberOfTrailingZeros(bits));
+                // Skip values that were changed back to what was last sent
+                if (entity.sent.set(value)) {
+                    changes[count++] = value;
+                }
+
+                bits &= bits - 1;
+            }
+
+            entity.dirty[word] = 0;
+        }
+
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        return count == changes.length ? changes : Arrays.copyOf(changes, count);
+    }
+
+    /**
+     * Same as {@link #pollChanges(int)}, but creates a packet for the changes.
+     *
+     * @return the packet, or null if nothing changed
+     */
+    public @Nullable ClientboundSetEntityDataPacket pollPacket(int entityId) {
+        EntityMetadata<?, ?>[] changes = this.pollChanges(entityId);
+        return changes.length == 0 ? null : new ClientboundSetEntityDataPacket(entityId, changes);
+    }
+
+    /**
+     * Gets all values of an entity, e.g. for a player that just started viewing it.
+     * This does not change which values are marked as changed.
+     *
+     * @return all values ordered by index, empty if the entity is not tracked
+     */
+    public synchronized EntityMetadata<?, ?>[] snapshot(int entityId) {
+        Entity entity = this.entities.get(entityId);
+        return entity == null ? EMPTY : entity.metadata.toArray();
+    }
+
+    public ClientboundSetEntityDataPacket snapshotPacket(int entityId) {
+        return new ClientboundSetEntityDataPacket(entityId, this.snapshot(entityId));
+    }
+
+    /**
+     * @return a copy of the current values of an entity, or null if it is not tracked
+     */
+    public synchronized @Nullable EntityMetadataSet getMetadata(int entityId) {
+        Entity entity = this.entities.get(entityId);
+        return entity == null ? null : new EntityMetadataSet(entity.metadata);
+    }
+
+    public synchronized boolean isTracked(int entityId) {
+        return this.entities.containsKey(entityId);
+    }
+
+    public synchronized void remove(int entityId) {
+        this.entities.remove(entityId);
+    }
+
+    public synchronized void clear() {
+        this.entities.clear();
+    }
+
+    private Entity entity(int entityId) {
+        Entity entity = this.entities.get(entityId);
+        if (entity == null) {
+            entity = new Entity();
+            this.entities.put(entityId, entity);
+        }
+
+        return entity;
+    }
+
+    private static final class Entity {
+        private final EntityMetadataSet metadata = new EntityMetadataSet();
+        // The values as of the last poll
+        private final EntityMetadataSet sent = new EntityMetadataSet();
+        // One bit per metadata index
+        private final long[] dirty = new long[(EntityMetadataSet.MAX_INDEX >> 6) + 1];
+
+        private void markDirty(int index) {
+            this.dirty[index >> 6] |= 1L << index;
+        }
+
+        private boolean isDirty() {
+            for (long bits : this.dirty) {
+                if (bits != 0) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private int dirtyCount() {
+            int count = 0;
+            for (long bits : this.dirty) {
+                count += Long.bitCount(bits);
+            }
+
+            return count;
+        }
+    }
+}
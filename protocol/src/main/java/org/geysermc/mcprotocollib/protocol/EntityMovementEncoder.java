@@ -0,0 +1,174 @@
+package org.geysermc.mcprotocollib.protocol;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.math.vector.Vector3d;
+import org.geysermc.mcprotocollib.protocol.codec.MinecraftPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundEntityPositionSyncPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundMoveEntityPosPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundMoveEntityPosRotPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundMoveEntityRotPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundTeleportEntityPacket;
+
+import java.util.Collections;
+
+/**
+ * Keeps the last position and rotation sent for entities on the server side, and picks the smallest packet
+ * that moves each entity to its new position.
+ * <p>
+ * Positions are quantized to 1/4096 of a block and angles to 1/256 of a turn, the same as the relative move packets.
+ * Moves are sent as {@link ClientboundMoveEntityPosPacket}, {@link ClientboundMoveEntityRotPacket} or
+ * {@link ClientboundMoveEntityPosRotPacket}, depending on what changed. Moves that are too large for a relative move,
+ * and the first change after {@link #getSyncInterval()} moves, are sent as a {@link ClientboundEntityPositionSyncPacket}
+ * with the exact position. All methods are thread-safe.
+ */
+public class EntityMovementEncoder {
+    public static final int DEFAULT_SYNC_INTERVAL = 400;
+
+    private final Int2ObjectMap<Entity> entities = new Int2ObjectOpenHashMap<>();
+    private final int syncInterval;
+
+    public EntityMovementEncoder() {
+        this(DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * @param syncInterval the amount of moves after which the exact position of a moving entity is sent again
+     */
+    public EntityMovementEncoder(int syncInterval) {
+        if (syncInterval <= 0) {
+            throw new IllegalArgumentException("Sync interval must be positive, got " + syncInterval);
+        }
+
+        this.syncInterval = syncInterval;
+    }
+
+    public int getSyncInterval() {
+        return this.syncInterval;
+    }
+
+    /**
+     * Starts tracking an entity at the position it was spawned at on the client, without sending anything.
+     */
+    public synchronized void track(int entityId, double x, double y, double z, float yaw, float pitch, boolean onGround) {
+        Entity entity = new Entity();
+        entity.set(x, y, z, yaw, pitch, onGround);
+        this.entities.put(entityId, entity);
+    }
+
+    /**
+     * Creates the smallest packet that moves an entity to the given position and rotation.
+     * Entities that are not tracked yet start being tracked and are sent their exact position.
+     *
+     * @return the packet, or null if the quantized position, rotation and on ground state did not change
+     */
+    public synchronized @Nullable MinecraftPacket move(int entityId, double x, double y, double z, float yaw, float pitch, boolean onGround) {
+        Entity entity = this.entities.get(entityId);
+        if (entity == null) {
+            entity = new Entity();
+            this.entities.put(entityId, entity);
+            return entity.sync(entityId, x, y, z, yaw, pitch, onGround);
+        }
+
+        long deltaX = quantizePosition(x) - entity.x;
+        long deltaY = quantizePosition(y) - entity.y;
+        long deltaZ = quantizePosition(z) - entity.z;
+        byte packedYaw = quantizeAngle(yaw);
+        byte packedPitch = quantizeAngle(pitch);
+        boolean moved = (deltaX | deltaY | deltaZ) != 0;
+        boolean rotated = packedYaw != entity.yaw || packedPitch != entity.pitch;
+        if (!moved && !rotated && onGround == entity.onGround) {
+            return null;
+        }
+
+        if (++entity.moves >= this.syncInterval || !fitsShort(deltaX) || !fitsShort(deltaY) || !fitsShort(deltaZ)) {
+            return entity.sync(entityId, x, y, z, yaw, pitch, onGround);
+        }
+
+        entity.x += deltaX;
+        entity.y += deltaY;
+        entity.z += deltaZ;
+        entity.yaw = packedYaw;
+        entity.pitch = packedPitch;
+        entity.onGround = onGround;
+        if (moved && rotated) {
+            return new ClientboundMoveEntityPosRotPacket(entityId, deltaX / 4096D, deltaY / 4096D, deltaZ / 4096D,
+                    unpackAngle(packedYaw), unpackAngle(packedPitch), onGround);
+        } else if (moved) {
+            return new ClientboundMoveEntityPosPacket(entityId, deltaX / 4096D, deltaY / 4096D, deltaZ / 4096D, onGround);
+        }
+
+        // Also used when only the on ground state changed, as it is the smallest move packet
+        return new ClientboundMoveEntityRotPacket(entityId, unpackAngle(packedYaw), unpackAngle(packedPitch), onGround);
+    }
+
+    /**
+     * Creates a teleport to the exact position and rotation, e.g. when an entity is teleported by a command.
+     */
+    public synchronized ClientboundTeleportEntityPacket teleport(int entityId, double x, double y, double z, float yaw, float pitch, boolean onGround) {
+        Entity entity = this.entities.get(entityId);
+        if (entity == null) {
+            entity = new Entity();
+            this.entities.put(entityId, entity);
+        }
+
+        entity.set(x, y, z, yaw, pitch, onGround);
+        return new ClientboundTeleportEntityPacket(entityId, Vector3d.from(x, y, z), Vector3d.ZERO, yaw, pitch, Collections.emptyList(), onGround);
+    }
+
+    public synchronized boolean isTracked(int entityId) {
+        return this.entities.containsKey(entityId);
+    }
+
+    public synchronized void remove(int entityId) {
+        this.entities.remove(entityId);
+    }
+
+    public synchronized void clear() {
+        this.entities.clear();
+    }
+
+    private static long quantizePosition(double value) {
+        // Rounded like the vanilla delta encoding, so that positions match what the client computes
+        return Math.round(value * 4096D);
+    }
+
+    private static byte quantizeAngle(float angle) {
+        return (byte) Math.floor(angle * 256F / 360F);
+    }
+
+    private static float unpackAngle(byte angle) {
+        // Serialized back to the same byte by the move packets
+        return angle * 360 / 256F;
+    }
+
+    private static boolean fitsShort(long value) {
+        return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+    }
+
+    private static final class Entity {
+        private long x;
+        private long y;
+        private long z;
+        private byte yaw;
+        private byte pitch;
+        private boolean onGround;
+        private int moves;
+
+        private void set(double x, double y, double z, float yaw, float pitch, boolean onGround) {
+            this.x = quantizePosition(x);
+            this.y = quantizePosition(y);
+            this.z = quantizePosition(z);
+            this.yaw = quantizeAngle(yaw);
+            this.pitch = quantizeAngle(pitch);
+            this.onGround = onGround;
+            this.moves = 0;
+        }
+
+        private ClientboundEntityPositionSyncPacket sync(int entityId, double x, double y, double z, float yaw, float pitch, boolean onGround) {
+            this.set(x, y, z, yaw, pitch, onGround);
+            return new ClientboundEntityPositionSyncPacket(entityId, Vector3d.from(x, y, z), Vector3d.ZERO, yaw, pitch, onGround);
+        }
+    }
+}
@@ -25,6 +25,8 @@ import org.slf4j.LoggerFactory;
 import java.io.InputStream;
 import java.security.GeneralSecurityException;
 import java.security.Key;
+import java.util.BitSet;
+import java.util.EnumMap;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -54,6 +56,9 @@ public class MinecraftProtocol extends PacketProtocol {
     private ProtocolState outboundState;
     private PacketRegistry outboundStateRegistry;
 
+    private final EnumMap<ProtocolState, BitSet> decodedInboundPackets = new EnumMap<>(ProtocolState.class);
+    private @Nullable BitSet inboundStateDecodedPackets;
+
     private final HandshakeIntent handshakeIntent;
 
     /**
@@ -187,6 +192,35 @@ public class MinecraftProtocol extends PacketProtocol {
         return this.outboundStateRegistry;
     }
 
+    @Override
+    public boolean shouldDecodeInbound(int id) {
+        BitSet decodedPackets = this.inboundStateDecodedPackets;
+        return decodedPackets == null || decodedPackets.get(id);
+    }
+
+    /**
+     * Sets which inbound packets are decoded in the given state. All other inbound packets in that state
+     * are passed on as {@link org.geysermc.mcprotocollib.network.packet.RawPacket}s, which is useful
+     * for proxies that only need to inspect a handful of packets.
+     * <p>
+     * Packets that switch the protocol state, such as {@link org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.ClientboundStartConfigurationPacket},
+     * and packets handled by the default listeners must be included.
+     *
+     * @param state The protocol state.
+     * @param packetIds The ids of the inbound packets to decode, or null to decode every packet.
+     */
+    public void setDecodedInboundPackets(ProtocolState state, @Nullable BitSet packetIds) {
+        if (packetIds == null) {
+            this.decodedInboundPackets.remove(state);
+        } else {
+            this.decodedInboundPackets.put(state, (BitSet) packetIds.clone());
+        }
+
+        if (state == this.inboundState) {
+            this.inboundStateDecodedPackets = this.decodedInboundPackets.get(state);
+        }
+    }
+
     protected EncryptionConfig createEncryption(Key key) {
         try {
             return new EncryptionConfig(new AESEncryption(key));
@@ -226,6 +260,7 @@ public class MinecraftProtocol extends PacketProtocol {
 
         this.inboundState = state;
         this.inboundStateRegistry = this.codec.getCodec(state);
+        this.inboundStateDecodedPackets = this.decodedInboundPackets.get(state);
     }
 
     public void setOutboundState(ProtocolState state) {
@@ -0,0 +1,98 @@
+package org.geysermc.mcprotocollib.protocol.codec;
+
+import net.kyori.adventure.text.Component;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded cache of encoded {@link Component}s used by {@link MinecraftTypes#writeComponent}.
+ * Components are immutable, so a component that was already written once can be written again
+ * by copying its encoded NBT bytes instead of converting it to JSON and NBT again.
+ * <p>
+ * The cache is direct-mapped: each component hash maps to a single slot, and a colliding
+ * component simply replaces the previous entry. Lookups and updates are lock-free.
+ * <p>
+ * Caching is disabled by default, and enabled by {@link #set(ComponentCache)}.
+ */
+public final class ComponentCache {
+    public static final int DEFAULT_SIZE = 1024;
+
+    private static final ComponentCache DISABLED = new ComponentCache(0);
+
+    private static volatile ComponentCache instance = DISABLED;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+
+    /**
+     * @param size the maximum amount of cached components, rounded up to a power of two. A size of 0 disables caching.
+     */
+    public ComponentCache(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+
+        int capacity = size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public static ComponentCache get() {
+        return instance;
+    }
+
+    /**
+     * Sets the cache that {@link MinecraftTypes#writeComponent} reuses the encoded form of written components from.
+     *
+     * @param cache the cache, or null to disable caching
+     */
+    public static void set(@Nullable ComponentCache cache) {
+        ComponentCache.instance = cache == null ? DISABLED : cache;
+    }
+
+    public byte @Nullable [] lookup(Component component) {
+        if (this.mask < 0) {
+            return null;
+        }
+
+        Entry entry = this.entries.get(index(component.hashCode()));
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.component == component || entry.component.equals(component)) {
+            return entry.encoded;
+        }
+
+        return null;
+    }
+
+    public void put(Component component, byte[] encoded) {
+        if (this.mask < 0) {
+            return;
+        }
+
+        this.entries.set(index(component.hashCode()), new Entry(component, encoded));
+    }
+
+    public boolean isEnabled() {
+        return this.mask >= 0;
+    }
+
+    /**
+     * Removes all cached entries. Must be called whenever the component serializer changes.
+     */
+    public void clear() {
+        for (int i = 0; i < this.entries.length(); i++) {
+            this.entries.set(i, null);
+        }
+    }
+
+    private int index(int hash) {
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+
+    private record Entry(Component component, byte[] encoded) {
+    }
+}
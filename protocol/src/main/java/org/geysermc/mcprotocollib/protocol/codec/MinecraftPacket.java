@@ -6,4 +6,15 @@ import org.geysermc.mcprotocollib.network.packet.Packet;
 public interface MinecraftPacket extends Packet {
 
     void serialize(ByteBuf buf);
+
+    /**
+     * Computes the amount of bytes {@link #serialize(ByteBuf)} will write, so that the
+     * outbound buffer can be allocated once with the right capacity.
+     * Packets whose size cannot be known without encoding them return -1.
+     *
+     * @return the serialized size of the packet body, or -1 if unknown
+     */
+    default int estimateSize() {
+        return -1;
+    }
 }
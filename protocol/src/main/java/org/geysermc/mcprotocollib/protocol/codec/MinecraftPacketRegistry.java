@@ -1,41 +1,59 @@
 package org.geysermc.mcprotocollib.protocol.codec;
 
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import org.geysermc.mcprotocollib.network.codec.PacketDefinition;
+import org.geysermc.mcprotocollib.network.codec.PacketSerializer;
 import org.geysermc.mcprotocollib.network.packet.PacketRegistry;
 
-public class MinecraftPacketRegistry {
-    private final Int2ObjectMap<PacketDefinition<? extends MinecraftPacket>> clientboundPackets = new Int2ObjectOpenHashMap<>();
-    private final Int2ObjectMap<PacketDefinition<? extends MinecraftPacket>> serverboundPackets = new Int2ObjectOpenHashMap<>();
+import java.util.ArrayList;
+import java.util.List;
 
-    private int nextClientboundId = 0x00;
-    private int nextServerboundId = 0x00;
+public class MinecraftPacketRegistry {
+    // Ids are assigned sequentially, so the index of a definition is its id
+    private final List<PacketDefinition<? extends MinecraftPacket>> clientboundPackets = new ArrayList<>();
+    private final List<PacketDefinition<? extends MinecraftPacket>> serverboundPackets = new ArrayList<>();
 
     public static MinecraftPacketRegistry builder() {
         return new MinecraftPacketRegistry();
     }
 
     public <T extends MinecraftPacket> MinecraftPacketRegistry registerClientboundPacket(Class<T> packetClass, PacketFactory<T> factory) {
-        this.clientboundPackets.put(nextClientboundId, new PacketDefinition<>(nextClientboundId, packetClass, new MinecraftPacketSerializer<>(factory)));
-        this.nextClientboundId++;
+        return this.registerClientboundPacket(packetClass, new MinecraftPacketSerializer<>(factory));
+    }
+
+    /**
+     * Registers a clientbound packet with a specialized serializer, replacing the packet's own
+     * {@link MinecraftPacket#serialize(io.netty.buffer.ByteBuf)} and {@link io.netty.buffer.ByteBuf} constructor.
+     * The buffer the packet is written to is sized by {@link PacketSerializer#estimateSize(org.geysermc.mcprotocollib.network.packet.Packet)}
+     * of the serializer instead of {@link MinecraftPacket#estimateSize()}.
+     */
+    public <T extends MinecraftPacket> MinecraftPacketRegistry registerClientboundPacket(Class<T> packetClass, PacketSerializer<T> serializer) {
+        this.clientboundPackets.add(new PacketDefinition<>(this.clientboundPackets.size(), packetClass, serializer));
         return this;
     }
 
     public <T extends MinecraftPacket> MinecraftPacketRegistry registerServerboundPacket(Class<T> packetClass, PacketFactory<T> factory) {
-        this.serverboundPackets.put(nextServerboundId, new PacketDefinition<>(nextServerboundId, packetClass, new MinecraftPacketSerializer<>(factory)));
-        this.nextServerboundId++;
+        return this.registerServerboundPacket(packetClass, new MinecraftPacketSerializer<>(factory));
+    }
+
+    /**
+     * Registers a serverbound packet with a specialized serializer, replacing the packet's own
+     * {@link MinecraftPacket#serialize(io.netty.buffer.ByteBuf)} and {@link io.netty.buffer.ByteBuf} constructor.
+     * The buffer the packet is written to is sized by {@link PacketSerializer#estimateSize(org.geysermc.mcprotocollib.network.packet.Packet)}
+     * of the serializer instead of {@link MinecraftPacket#estimateSize()}.
+     */
+    public <T extends MinecraftPacket> MinecraftPacketRegistry registerServerboundPacket(Class<T> packetClass, PacketSerializer<T> serializer) {
+        this.serverboundPackets.add(new PacketDefinition<>(this.serverboundPackets.size(), packetClass, serializer));
         return this;
     }
 
     public PacketRegistry build() {
         PacketRegistry codec = new PacketRegistry();
-        for (Int2ObjectMap.Entry<PacketDefinition<? extends MinecraftPacket>> entry : this.clientboundPackets.int2ObjectEntrySet()) {
-            codec.registerClientbound(entry.getValue());
+        for (PacketDefinition<? extends MinecraftPacket> definition : this.clientboundPackets) {
+            codec.registerClientbound(definition);
         }
 
-        for (Int2ObjectMap.Entry<PacketDefinition<? extends MinecraftPacket>> entry : this.serverboundPackets.int2ObjectEntrySet()) {
-            codec.registerServerbound(entry.getValue());
+        for (PacketDefinition<? extends MinecraftPacket> definition : this.serverboundPackets) {
+            codec.registerServerbound(definition);
         }
 
         return codec;
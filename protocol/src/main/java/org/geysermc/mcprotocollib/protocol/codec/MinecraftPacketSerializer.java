@@ -18,4 +18,9 @@ public class MinecraftPacketSerializer<T extends MinecraftPacket> implements Pac
     public T deserialize(ByteBuf buf, PacketDefinition<T> definition) {
         return this.factory.construct(buf);
     }
+
+    @Override
+    public int estimateSize(T packet) {
+        return packet.estimateSize();
+    }
 }
@@ -16,6 +16,7 @@ import org.cloudburstmc.math.vector.Vector3i;
 import org.cloudburstmc.math.vector.Vector4f;
 import org.cloudburstmc.nbt.NBTInputStream;
 import org.cloudburstmc.nbt.NBTOutputStream;
+import org.cloudburstmc.nbt.NbtList;
 import org.cloudburstmc.nbt.NbtMap;
 import org.cloudburstmc.nbt.NbtType;
 import org.geysermc.mcprotocollib.auth.GameProfile;
@@ -23,11 +24,13 @@ import org.geysermc.mcprotocollib.protocol.data.DefaultComponentSerializer;
 import org.geysermc.mcprotocollib.protocol.data.game.Holder;
 import org.geysermc.mcprotocollib.protocol.data.game.chat.ChatType;
 import org.geysermc.mcprotocollib.protocol.data.game.chat.ChatTypeDecoration;
+import org.geysermc.mcprotocollib.protocol.data.game.chat.LazyComponent;
 import org.geysermc.mcprotocollib.protocol.data.game.chat.numbers.BlankFormat;
 import org.geysermc.mcprotocollib.protocol.data.game.chat.numbers.FixedFormat;
 import org.geysermc.mcprotocollib.protocol.data.game.chat.numbers.NumberFormat;
 import org.geysermc.mcprotocollib.protocol.data.game.chat.numbers.StyledFormat;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.BitStorage;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.ChunkColumn;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.ChunkSection;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.DataPalette;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.GlobalPalette;
@@ -40,8 +43,14 @@ import org.geysermc.mcprotocollib.protocol.data.game.entity.Effect;
 import org.geysermc.mcprotocollib.protocol.data.game.entity.EntityEvent;
 import org.geysermc.mcprotocollib.protocol.data.game.entity.attribute.ModifierOperation;
 import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.ArmadilloState;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.BooleanMetadataType;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.ByteMetadataType;
 import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.EntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.EntityMetadataSet;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.FloatMetadataType;
 import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.GlobalPos;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.IntMetadataType;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.LongMetadataType;
 import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.MetadataType;
 import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.PaintingVariant;
 import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.Pose;
@@ -53,10 +62,12 @@ import org.geysermc.mcprotocollib.protocol.data.game.entity.player.BlockBreakSta
 import org.geysermc.mcprotocollib.protocol.data.game.entity.player.GameMode;
 import org.geysermc.mcprotocollib.protocol.data.game.entity.player.PlayerSpawnInfo;
 import org.geysermc.mcprotocollib.protocol.data.game.item.ItemStack;
+import org.geysermc.mcprotocollib.protocol.data.game.item.ItemStackCache;
 import org.geysermc.mcprotocollib.protocol.data.game.item.component.DataComponent;
 import org.geysermc.mcprotocollib.protocol.data.game.item.component.DataComponentType;
 import org.geysermc.mcprotocollib.protocol.data.game.item.component.DataComponents;
 import org.geysermc.mcprotocollib.protocol.data.game.item.component.HolderSet;
+import org.geysermc.mcprotocollib.protocol.data.game.level.LightSection;
 import org.geysermc.mcprotocollib.protocol.data.game.level.LightUpdateData;
 import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockEntityType;
 import org.geysermc.mcprotocollib.protocol.data.game.level.event.LevelEvent;
@@ -108,10 +119,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.IntFunction;
@@ -126,6 +138,9 @@ public class MinecraftTypes {
     private static final int POSITION_Y_SHIFT = 0xFFF;
     private static final int POSITION_WRITE_SHIFT = 0x3FFFFFF;
 
+    private static volatile boolean optimizePalettesOnWrite = false;
+    private static volatile @Nullable ItemStackCache itemStackCache;
+
     public static void writeVarInt(ByteBuf buf, int value) {
         while ((value & ~0x7F) != 0) {
             buf.writeByte(value & 0x7F | 0x80);
@@ -135,6 +150,10 @@ public class MinecraftTypes {
         buf.writeByte(value);
     }
 
+    public static int varIntSize(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
     public static int readVarInt(ByteBuf buf) {
         int value = 0;
         int size = 0;
@@ -161,6 +180,10 @@ public class MinecraftTypes {
         buf.writeByte((int) value);
     }
 
+    public static int varLongSize(long value) {
+        return (63 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
     public static long readVarLong(ByteBuf buf) {
         long value = 0;
         int size = 0;
@@ -200,6 +223,11 @@ public class MinecraftTypes {
         buf.writeCharSequence(value, StandardCharsets.UTF_8);
     }
 
+    public static int utf8Size(String value) {
+        int length = ByteBufUtil.utf8Bytes(value);
+        return MinecraftTypes.varIntSize(length) + length;
+    }
+
     @Nullable
     public static <T> T readNullable(ByteBuf buf, Function<ByteBuf, T> ifPresent) {
         if (buf.readBoolean()) {
@@ -285,6 +313,10 @@ public class MinecraftTypes {
         MinecraftTypes.writeString(buf, location.asString());
     }
 
+    public static int resourceLocationSize(Key location) {
+        return MinecraftTypes.utf8Size(location.asString());
+    }
+
     public static UUID readUUID(ByteBuf buf) {
         return new UUID(buf.readLong(), buf.readLong());
     }
@@ -314,6 +346,10 @@ public class MinecraftTypes {
         buf.writeBytes(bytes);
     }
 
+    public static int byteArraySize(byte[] bytes) {
+        return MinecraftTypes.varIntSize(bytes.length) + bytes.length;
+    }
+
     public static long[] readLongArray(ByteBuf buf) {
         return MinecraftTypes.readLongArray(buf, MinecraftTypes::readVarInt);
     }
@@ -343,6 +379,10 @@ public class MinecraftTypes {
         }
     }
 
+    public static int longArraySize(long[] l) {
+        return MinecraftTypes.varIntSize(l.length) + l.length * Long.BYTES;
+    }
+
     @Nullable
     public static NbtMap readCompoundTag(ByteBuf buf) {
         return readAnyTag(buf, NbtType.COMPOUND);
@@ -409,6 +449,60 @@ public class MinecraftTypes {
         }
     }
 
+    /**
+     * Computes the amount of bytes {@link #writeAnyTag(ByteBuf, Object)} writes for the given tag.
+     */
+    public static int anyTagSize(@Nullable Object tag) {
+        return tag == null ? 1 : 1 + MinecraftTypes.tagPayloadSize(tag);
+    }
+
+    private static int tagPayloadSize(Object tag) {
+        if (tag instanceof Byte || tag instanceof Boolean) {
+            return Byte.BYTES;
+        } else if (tag instanceof Short) {
+            return Short.BYTES;
+        } else if (tag instanceof Integer || tag instanceof Float) {
+            return Integer.BYTES;
+        } else if (tag instanceof Long || tag instanceof Double) {
+            return Long.BYTES;
+        } else if (tag instanceof byte[] array) {
+            return Integer.BYTES + array.length;
+        } else if (tag instanceof String string) {
+            return Short.BYTES + MinecraftTypes.modifiedUtf8Length(string);
+        } else if (tag instanceof int[] array) {
+            return Integer.BYTES + array.length * Integer.BYTES;
+        } else if (tag instanceof long[] array) {
+            return Integer.BYTES + array.length * Long.BYTES;
+        } else if (tag instanceof NbtList<?> list) {
+            int size = Byte.BYTES + Integer.BYTES;
+            for (Object element : list) {
+                size += MinecraftTypes.tagPayloadSize(element);
+            }
+            return size;
+        } else if (tag instanceof NbtMap map) {
+            int size = Byte.BYTES; // End tag
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                size += Byte.BYTES + Short.BYTES + MinecraftTypes.modifiedUtf8Length(entry.getKey());
+                size += MinecraftTypes.tagPayloadSize(entry.getValue());
+            }
+            return size;
+        }
+
+        throw new IllegalArgumentException("Unknown NBT tag class: " + tag.getClass().getName());
+    }
+
+    private static int modifiedUtf8Length(String string) {
+        int length = string.length();
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c == 0 || c > 0x7F) {
+                length += c > 0x7FF ? 2 : 1;
+            }
+        }
+
+        return length;
+    }
+
     @Nullable
     public static ItemStack readOptionalItemStack(ByteBuf buf) {
         int count = MinecraftTypes.readVarInt(buf);
@@ -417,7 +511,25 @@ public class MinecraftTypes {
         }
 
         int item = MinecraftTypes.readVarInt(buf);
-        return new ItemStack(item, count, MinecraftTypes.readDataComponentPatch(buf));
+        ItemStack stack = new ItemStack(item, count, MinecraftTypes.readDataComponentPatch(buf));
+        ItemStackCache cache = MinecraftTypes.itemStackCache;
+        return cache == null ? stack : cache.intern(stack);
+    }
+
+    /**
+     * Sets the cache that {@link #readOptionalItemStack(ByteBuf)} interns the decoded items in.
+     * The data components of items decoded while a cache is set are unmodifiable. Disabled by default.
+     * <p>
+     * Interned items and components are shared by every packet that decoded an equal item, and so are their
+     * component values. Most values are mutable objects, such as lists, NBT or nested items, and must not be
+     * modified: copy the value and put the copy into a {@link DataComponents#clone() clone} of the components instead.
+     * Items nested in components are interned first, so hashing the components of the outer item reuses
+     * the cached hash codes of the nested ones.
+     *
+     * @param cache the cache, or null to disable interning
+     */
+    public static void setItemStackCache(@Nullable ItemStackCache cache) {
+        MinecraftTypes.itemStackCache = cache;
     }
 
     public static void writeOptionalItemStack(ByteBuf buf, ItemStack item) {
@@ -446,20 +558,18 @@ public class MinecraftTypes {
             return null;
         }
 
-        Map<DataComponentType<?>, DataComponent<?, ?>> dataComponents = new HashMap<>();
+        DataComponents dataComponents = new DataComponents();
         for (int k = 0; k < nonNullComponents; k++) {
             DataComponentType<?> dataComponentType = DataComponentType.from(MinecraftTypes.readVarInt(buf));
-            DataComponent<?, ?> dataComponent = dataComponentType.readDataComponent(buf);
-            dataComponents.put(dataComponentType, dataComponent);
+            dataComponents.put(dataComponentType.readDataComponent(buf));
         }
 
         for (int k = 0; k < nullComponents; k++) {
             DataComponentType<?> dataComponentType = DataComponentType.from(MinecraftTypes.readVarInt(buf));
-            DataComponent<?, ?> dataComponent = dataComponentType.readNullDataComponent();
-            dataComponents.put(dataComponentType, dataComponent);
+            dataComponents.put(dataComponentType.readNullDataComponent());
         }
 
-        return new DataComponents(dataComponents);
+        return dataComponents;
     }
 
     public static void writeDataComponentPatch(ByteBuf buf, DataComponents dataComponents) {
@@ -501,14 +611,13 @@ public class MinecraftTypes {
         int count = MinecraftTypes.readVarInt(buf);
         int componentsLength = MinecraftTypes.readVarInt(buf);
 
-        Map<DataComponentType<?>, DataComponent<?, ?>> dataComponents = new HashMap<>();
+        DataComponents dataComponents = new DataComponents();
         for (int i = 0; i < componentsLength; i++) {
             DataComponentType<?> dataComponentType = DataComponentType.from(MinecraftTypes.readVarInt(buf));
-            DataComponent<?, ?> dataComponent = dataComponentType.readDataComponent(buf);
-            dataComponents.put(dataComponentType, dataComponent);
+            dataComponents.put(dataComponentType.readDataComponent(buf));
         }
 
-        return new ItemStack(item, count, new DataComponents(dataComponents));
+        return new ItemStack(item, count, dataComponents);
     }
 
     public static void writeTradeItemStack(ByteBuf buf, @NotNull ItemStack item) {
@@ -521,7 +630,7 @@ public class MinecraftTypes {
             return;
         }
 
-        MinecraftTypes.writeVarInt(buf, dataComponents.getDataComponents().size());
+        MinecraftTypes.writeVarInt(buf, dataComponents.size());
         for (DataComponent<?, ?> component : dataComponents.getDataComponents().values()) {
             MinecraftTypes.writeVarInt(buf, component.getType().getId());
             component.write(buf);
@@ -678,11 +787,91 @@ public class MinecraftTypes {
     }
 
     public static void writeComponent(ByteBuf buf, Component component) {
+        ComponentCache cache = ComponentCache.get();
+        if (!cache.isEnabled()) {
+            MinecraftTypes.writeComponentUncached(buf, component);
+            return;
+        }
+
+        byte[] encoded = cache.lookup(component);
+        if (encoded != null) {
+            buf.writeBytes(encoded);
+            return;
+        }
+
+        int start = buf.writerIndex();
+        MinecraftTypes.writeComponentUncached(buf, component);
+        encoded = new byte[buf.writerIndex() - start];
+        buf.getBytes(start, encoded);
+        cache.put(component, encoded);
+    }
+
+    private static void writeComponentUncached(ByteBuf buf, Component component) {
         JsonElement json = DefaultComponentSerializer.get().serializeToTree(component);
         Object tag = NbtComponentSerializer.jsonComponentToTag(json);
         writeAnyTag(buf, tag);
     }
 
+    public static LazyComponent readLazyComponent(ByteBuf buf) {
+        int start = buf.readerIndex();
+        int typeId = buf.readUnsignedByte();
+        if (typeId == 0) {
+            throw new IllegalArgumentException("Got end-tag when trying to read Component");
+        }
+
+        MinecraftTypes.skipTagPayload(buf, typeId, 0);
+
+        byte[] encoded = new byte[buf.readerIndex() - start];
+        buf.getBytes(start, encoded);
+        return LazyComponent.ofEncoded(encoded);
+    }
+
+    public static void writeLazyComponent(ByteBuf buf, LazyComponent component) {
+        component.write(buf);
+    }
+
+    private static void skipTagPayload(ByteBuf buf, int typeId, int depth) {
+        if (depth > 512) {
+            throw new IllegalArgumentException("NBT compound is too deeply nested");
+        }
+
+        switch (typeId) {
+            case 1 -> buf.skipBytes(Byte.BYTES);
+            case 2 -> buf.skipBytes(Short.BYTES);
+            case 3, 5 -> buf.skipBytes(Integer.BYTES);
+            case 4, 6 -> buf.skipBytes(Long.BYTES);
+            case 7 -> buf.skipBytes(MinecraftTypes.readTagArrayLength(buf, Byte.BYTES));
+            case 8 -> buf.skipBytes(buf.readUnsignedShort());
+            case 9 -> {
+                int elementType = buf.readUnsignedByte();
+                int length = buf.readInt();
+                for (int i = 0; i < length; i++) {
+                    MinecraftTypes.skipTagPayload(buf, elementType, depth + 1);
+                }
+            }
+            case 10 -> {
+                int entryType;
+                while ((entryType = buf.readUnsignedByte()) != 0) {
+                    buf.skipBytes(buf.readUnsignedShort());
+                    MinecraftTypes.skipTagPayload(buf, entryType, depth + 1);
+                }
+            }
+            case 11 -> buf.skipBytes(MinecraftTypes.readTagArrayLength(buf, Integer.BYTES) * Integer.BYTES);
+            case 12 -> buf.skipBytes(MinecraftTypes.readTagArrayLength(buf, Long.BYTES) * Long.BYTES);
+            default -> throw new IllegalArgumentException("Unknown NBT tag type: " + typeId);
+        }
+    }
+
+    private static int readTagArrayLength(ByteBuf buf, int elementSize) {
+        int length = buf.readInt();
+        // Checked before multiplying, so that hostile lengths cannot overflow
+        if (length < 0 || length > buf.readableBytes() / elementSize) {
+            throw new IllegalArgumentException("Invalid NBT array length: " + length);
+        }
+
+        return length;
+    }
+
     public static EntityMetadata<?, ?>[] readEntityMetadata(ByteBuf buf) {
         List<EntityMetadata<?, ?>> ret = new ArrayList<>();
         int id;
@@ -701,6 +890,61 @@ public class MinecraftTypes {
         buf.writeByte(255);
     }
 
+    public static EntityMetadataSet readEntityMetadataSet(ByteBuf buf) {
+        EntityMetadataSet metadata = new EntityMetadataSet();
+        int id;
+        while ((id = buf.readUnsignedByte()) != 255) {
+            MetadataType<?> type = MinecraftTypes.readMetadataType(buf);
+            if (type instanceof ByteMetadataType byteType) {
+                metadata.setByte(id, byteType, byteType.readMetadataPrimitive(buf));
+            } else if (type instanceof IntMetadataType intType) {
+                metadata.setInt(id, intType, intType.readMetadataPrimitive(buf));
+            } else if (type instanceof LongMetadataType longType) {
+                metadata.setLong(id, longType, longType.readMetadataPrimitive(buf));
+            } else if (type instanceof FloatMetadataType floatType) {
+                metadata.setFloat(id, floatType, floatType.readMetadataPrimitive(buf));
+            } else if (type instanceof BooleanMetadataType booleanType) {
+                metadata.setBoolean(id, booleanType, booleanType.readMetadataPrimitive(buf));
+            } else {
+                MinecraftTypes.readMetadataValue(buf, metadata, id, type);
+            }
+        }
+
+        return metadata;
+    }
+
+    public static void writeEntityMetadataSet(ByteBuf buf, EntityMetadataSet metadata) {
+        for (int id = metadata.nextIndex(0); id >= 0; id = metadata.nextIndex(id + 1)) {
+            MetadataType<?> type = metadata.getType(id);
+            buf.writeByte(id);
+            MinecraftTypes.writeMetadataType(buf, type);
+            if (type instanceof ByteMetadataType byteType) {
+                byteType.writeMetadataPrimitive(buf, metadata.getByte(id));
+            } else if (type instanceof IntMetadataType intType) {
+                intType.writeMetadataPrimitive(buf, metadata.getInt(id));
+            } else if (type instanceof LongMetadataType longType) {
+                longType.writeMetadataPrimitive(buf, metadata.getLong(id));
+            } else if (type instanceof FloatMetadataType floatType) {
+                floatType.writeMetadataPrimitive(buf, metadata.getFloat(id));
+            } else if (type instanceof BooleanMetadataType booleanType) {
+                booleanType.writeMetadataPrimitive(buf, metadata.getBoolean(id));
+            } else {
+                MinecraftTypes.writeMetadataValue(buf, type, metadata.getValue(id));
+            }
+        }
+
+        buf.writeByte(255);
+    }
+
+    private static <T> void readMetadataValue(ByteBuf buf, EntityMetadataSet metadata, int id, MetadataType<T> type) {
+        metadata.set(id, type, type.getReader().read(buf));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void writeMetadataValue(ByteBuf buf, MetadataType<T> type, Object value) {
+        type.writeMetadata(buf, (T) value);
+    }
+
     public static EntityMetadata<?, ?> readMetadata(ByteBuf buf, int id) {
         MetadataType<?> type = MinecraftTypes.readMetadataType(buf);
         return type.readMetadata(buf, id);
@@ -984,24 +1228,90 @@ public class MinecraftTypes {
     }
 
     public static LightUpdateData readLightUpdateData(ByteBuf buf) {
-        BitSet skyYMask = BitSet.valueOf(MinecraftTypes.readLongArray(buf));
-        BitSet blockYMask = BitSet.valueOf(MinecraftTypes.readLongArray(buf));
-        BitSet emptySkyYMask = BitSet.valueOf(MinecraftTypes.readLongArray(buf));
-        BitSet emptyBlockYMask = BitSet.valueOf(MinecraftTypes.readLongArray(buf));
+        BitSet skyYMask = MinecraftTypes.readBitSet(buf);
+        BitSet blockYMask = MinecraftTypes.readBitSet(buf);
+        BitSet emptySkyYMask = MinecraftTypes.readBitSet(buf);
+        BitSet emptyBlockYMask = MinecraftTypes.readBitSet(buf);
 
         int skyUpdateSize = MinecraftTypes.readVarInt(buf);
-        List<byte[]> skyUpdates = new ArrayList<>(skyUpdateSize);
+        List<LightSection> skyLight = new ArrayList<>(skyUpdateSize);
         for (int i = 0; i < skyUpdateSize; i++) {
-            skyUpdates.add(MinecraftTypes.readByteArray(buf));
+            skyLight.add(MinecraftTypes.readLightSection(buf));
         }
 
         int blockUpdateSize = MinecraftTypes.readVarInt(buf);
-        List<byte[]> blockUpdates = new ArrayList<>(blockUpdateSize);
+        List<LightSection> blockLight = new ArrayList<>(blockUpdateSize);
         for (int i = 0; i < blockUpdateSize; i++) {
-            blockUpdates.add(MinecraftTypes.readByteArray(buf));
+            blockLight.add(MinecraftTypes.readLightSection(buf));
         }
 
-        return new LightUpdateData(skyYMask, blockYMask, emptySkyYMask, emptyBlockYMask, skyUpdates, blockUpdates);
+        return new LightUpdateData(skyYMask, blockYMask, emptySkyYMask, emptyBlockYMask, skyLight, blockLight);
+    }
+
+    /**
+     * Reads a bit set written as a long array, without an intermediate array.
+     */
+    private static BitSet readBitSet(ByteBuf buf) {
+        int length = MinecraftTypes.readVarInt(buf);
+        if (length < 0) {
+            throw new IllegalArgumentException("Array cannot have length less than 0.");
+        }
+
+        BitSet bitSet = new BitSet(length * Long.SIZE);
+        for (int index = 0; index < length; index++) {
+            long word = buf.readLong();
+            while (word != 0) {
+                bitSet.set(index * Long.SIZE + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+
+        return bitSet;
+    }
+
+    /**
+     * Reads the light nibbles of a section. Sections that are entirely dark or lit
+     * are returned as the shared {@link LightSection} instances without allocating.
+     */
+    public static LightSection readLightSection(ByteBuf buf) {
+        int length = MinecraftTypes.readVarInt(buf);
+        if (length != LightSection.SIZE) {
+            throw new IllegalArgumentException("Light data must be " + LightSection.SIZE + " bytes long, got " + length);
+        }
+
+        long first = buf.getLong(buf.readerIndex());
+        if (first == 0 || first == -1) {
+            int end = buf.readerIndex() + length;
+            int index = buf.readerIndex() + Long.BYTES;
+            while (index < end && buf.getLong(index) == first) {
+                index += Long.BYTES;
+            }
+
+            if (index == end) {
+                buf.skipBytes(length);
+                return first == 0 ? LightSection.empty() : LightSection.full();
+            }
+        }
+
+        byte[] data = new byte[length];
+        buf.readBytes(data);
+        return LightSection.of(data);
+    }
+
+    /**
+     * Writes the light nibbles of a section. The shared sections are written without copying their nibbles.
+     */
+    public static void writeLightSection(ByteBuf buf, LightSection section) {
+        MinecraftTypes.writeVarInt(buf, LightSection.SIZE);
+        if (section == LightSection.empty()) {
+            buf.writeZero(LightSection.SIZE);
+        } else if (section == LightSection.full()) {
+            for (int i = 0; i < LightSection.SIZE / Long.BYTES; i++) {
+                buf.writeLong(-1);
+            }
+        } else {
+            buf.writeBytes(section.getData());
+        }
     }
 
     public static void writeLightUpdateData(ByteBuf buf, LightUpdateData data) {
@@ -1010,14 +1320,14 @@ public class MinecraftTypes {
         writeBitSet(buf, data.getEmptySkyYMask());
         writeBitSet(buf, data.getEmptyBlockYMask());
 
-        MinecraftTypes.writeVarInt(buf, data.getSkyUpdates().size());
-        for (byte[] array : data.getSkyUpdates()) {
-            MinecraftTypes.writeByteArray(buf, array);
+        MinecraftTypes.writeVarInt(buf, data.getSkyLight().size());
+        for (LightSection section : data.getSkyLight()) {
+            MinecraftTypes.writeLightSection(buf, section);
         }
 
-        MinecraftTypes.writeVarInt(buf, data.getBlockUpdates().size());
-        for (byte[] array : data.getBlockUpdates()) {
-            MinecraftTypes.writeByteArray(buf, array);
+        MinecraftTypes.writeVarInt(buf, data.getBlockLight().size());
+        for (LightSection section : data.getBlockLight()) {
+            MinecraftTypes.writeLightSection(buf, section);
         }
     }
 
@@ -1026,6 +1336,22 @@ public class MinecraftTypes {
         MinecraftTypes.writeLongArray(buf, array);
     }
 
+    public static int lightUpdateDataSize(LightUpdateData data) {
+        int size = MinecraftTypes.bitSetSize(data.getSkyYMask())
+                + MinecraftTypes.bitSetSize(data.getBlockYMask())
+                + MinecraftTypes.bitSetSize(data.getEmptySkyYMask())
+                + MinecraftTypes.bitSetSize(data.getEmptyBlockYMask());
+
+        int sections = data.getSkyLight().size() + data.getBlockLight().size();
+        size += MinecraftTypes.varIntSize(data.getSkyLight().size()) + MinecraftTypes.varIntSize(data.getBlockLight().size());
+        return size + sections * (MinecraftTypes.varIntSize(LightSection.SIZE) + LightSection.SIZE);
+    }
+
+    private static int bitSetSize(BitSet bitSet) {
+        int words = (bitSet.length() + Long.SIZE - 1) / Long.SIZE;
+        return MinecraftTypes.varIntSize(words) + words * Long.BYTES;
+    }
+
     public static LevelEvent readLevelEvent(ByteBuf buf) {
         int id = buf.readInt();
         LevelEventType type = LevelEventType.from(id);
@@ -1236,7 +1562,26 @@ public class MinecraftTypes {
         return MinecraftTypes.readDataPalette(buf, paletteType);
     }
 
+    /**
+     * Sets whether {@link #writeDataPalette(ByteBuf, DataPalette)} writes the {@link DataPalette#optimize() optimized}
+     * form of palettes. The written palettes themselves are not modified, but keep their optimized form
+     * until they are modified. Disabled by default.
+     */
+    public static void setOptimizePalettesOnWrite(boolean optimize) {
+        MinecraftTypes.optimizePalettesOnWrite = optimize;
+    }
+
+    private static DataPalette paletteToWrite(DataPalette palette) {
+        if (!MinecraftTypes.optimizePalettesOnWrite) {
+            return palette;
+        }
+
+        // Kept by the palette until it is modified, so sizing and writing it only optimize it once
+        return palette.toOptimized();
+    }
+
     public static void writeDataPalette(ByteBuf buf, DataPalette palette) {
+        palette = MinecraftTypes.paletteToWrite(palette);
         if (palette.getPalette() instanceof SingletonPalette) {
             buf.writeByte(0); // Bits per entry
             MinecraftTypes.writeVarInt(buf, palette.getPalette().idToState(0));
@@ -1293,6 +1638,107 @@ public class MinecraftTypes {
         MinecraftTypes.writeDataPalette(buf, section.getBiomeData());
     }
 
+    public static int chunkSectionSize(ChunkSection section) {
+        return Short.BYTES + MinecraftTypes.dataPaletteSize(section.getChunkData()) + MinecraftTypes.dataPaletteSize(section.getBiomeData());
+    }
+
+    public static int dataPaletteSize(DataPalette palette) {
+        palette = MinecraftTypes.paletteToWrite(palette);
+        if (palette.getPalette() instanceof SingletonPalette) {
+            return Byte.BYTES + MinecraftTypes.varIntSize(palette.getPalette().idToState(0)) + Byte.BYTES;
+        }
+
+        int size = Byte.BYTES;
+        if (!(palette.getPalette() instanceof GlobalPalette)) {
+            int paletteLength = palette.getPalette().size();
+            size += MinecraftTypes.varIntSize(paletteLength);
+            for (int i = 0; i < paletteLength; i++) {
+                size += MinecraftTypes.varIntSize(palette.getPalette().idToState(i));
+            }
+        }
+
+        return size + MinecraftTypes.longArraySize(palette.getStorage().getData());
+    }
+
+    /**
+     * Reads the sections of a chunk column straight from the buffer, without the length prefix.
+     *
+     * @param sectionCount the amount of sections in the column, see {@link ChunkColumn#sectionCount(int)}
+     */
+    public static ChunkColumn readChunkColumn(ByteBuf buf, int sectionCount) {
+        ChunkSection[] sections = new ChunkSection[sectionCount];
+        for (int i = 0; i < sectionCount; i++) {
+            sections[i] = MinecraftTypes.readChunkSection(buf);
+        }
+
+        return new ChunkColumn(sections);
+    }
+
+    /**
+     * Reads the sections of a chunk column, decoding them in parallel on the given pool.
+     * The section boundaries are found by a pre-scan that only reads the palette headers.
+     *
+     * @param sectionCount the amount of sections in the column, see {@link ChunkColumn#sectionCount(int)}
+     * @param pool the pool the sections are decoded on
+     */
+    public static ChunkColumn readChunkColumn(ByteBuf buf, int sectionCount, ForkJoinPool pool) {
+        int[] offsets = new int[sectionCount + 1];
+        for (int i = 0; i < sectionCount; i++) {
+            offsets[i] = buf.readerIndex();
+            MinecraftTypes.skipChunkSection(buf);
+        }
+        offsets[sectionCount] = buf.readerIndex();
+
+        List<ForkJoinTask<ChunkSection>> tasks = new ArrayList<>(sectionCount);
+        for (int i = 0; i < sectionCount; i++) {
+            // Every task reads through its own slice, so the reader indices are not shared
+            ByteBuf slice = buf.slice(offsets[i], offsets[i + 1] - offsets[i]);
+            tasks.add(pool.submit(() -> MinecraftTypes.readChunkSection(slice)));
+        }
+
+        ChunkSection[] sections = new ChunkSection[sectionCount];
+        for (int i = 0; i < sectionCount; i++) {
+            sections[i] = tasks.get(i).join();
+        }
+
+        return new ChunkColumn(sections);
+    }
+
+    private static void skipChunkSection(ByteBuf buf) {
+        buf.skipBytes(Short.BYTES); // Block count
+        MinecraftTypes.skipDataPalette(buf, PaletteType.CHUNK);
+        MinecraftTypes.skipDataPalette(buf, PaletteType.BIOME);
+    }
+
+    private static void skipDataPalette(ByteBuf buf, PaletteType paletteType) {
+        int bitsPerEntry = buf.readByte() & 0xFF;
+        if (bitsPerEntry == 0) {
+            MinecraftTypes.readVarInt(buf);
+        } else if (bitsPerEntry <= paletteType.getMaxBitsPerEntry()) {
+            int paletteLength = MinecraftTypes.readVarInt(buf);
+            for (int i = 0; i < paletteLength; i++) {
+                MinecraftTypes.readVarInt(buf);
+            }
+        }
+
+        buf.skipBytes(MinecraftTypes.readVarInt(buf) * Long.BYTES);
+    }
+
+    public static void writeChunkColumn(ByteBuf buf, ChunkColumn column) {
+        for (ChunkSection section : column.getSections()) {
+            MinecraftTypes.writeChunkSection(buf, section);
+        }
+    }
+
+    public static int chunkColumnSize(ChunkColumn column) {
+        int size = 0;
+        for (ChunkSection section : column.getSections()) {
+            size += MinecraftTypes.chunkSectionSize(section);
+        }
+
+        return size;
+    }
+
     public static <E extends Enum<E>> EnumSet<E> readEnumSet(ByteBuf buf, E[] values) {
         BitSet bitSet = MinecraftTypes.readFixedBitSet(buf, values.length);
         List<E> readValues = new ArrayList<>();
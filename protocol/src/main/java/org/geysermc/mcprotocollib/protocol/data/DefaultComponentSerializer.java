@@ -2,6 +2,7 @@ package org.geysermc.mcprotocollib.protocol.data;
 
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import net.kyori.adventure.text.serializer.json.legacyimpl.NBTLegacyHoverEventSerializer;
+import org.geysermc.mcprotocollib.protocol.codec.ComponentCache;
 
 public final class DefaultComponentSerializer {
     private static GsonComponentSerializer serializer = GsonComponentSerializer.builder()
@@ -14,6 +15,8 @@ public final class DefaultComponentSerializer {
 
     public static void set(GsonComponentSerializer serializer) {
         DefaultComponentSerializer.serializer = serializer;
+        // Cached encodings were produced by the previous serializer
+        ComponentCache.get().clear();
     }
 
     private DefaultComponentSerializer() {
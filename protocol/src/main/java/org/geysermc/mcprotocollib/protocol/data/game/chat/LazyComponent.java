@@ -0,0 +1,114 @@
+package org.geysermc.mcprotocollib.protocol.data.game.chat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.NonNull;
+import net.kyori.adventure.text.Component;
+import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Component} that keeps its encoded NBT form around and only builds the component tree when it is requested.
+ * Re-encoding a lazy component that was never modified is a single byte copy.
+ * <p>
+ * Lazy components are compared by their encoded form, so that comparing or hashing them never decodes them.
+ */
+public final class LazyComponent {
+    private volatile byte[] encoded;
+    private volatile Component component;
+
+    private LazyComponent(byte[] encoded, Component component) {
+        this.encoded = encoded;
+        this.component = component;
+    }
+
+    public static LazyComponent of(@NonNull Component component) {
+        return new LazyComponent(null, component);
+    }
+
+    /**
+     * Creates a lazy component from its network NBT encoding.
+     * The array is not copied and must not be modified afterwards.
+     *
+     * @param encoded the encoded component tag, including its type id
+     * @return a lazy component backed by the given bytes
+     */
+    public static LazyComponent ofEncoded(byte @NonNull [] encoded) {
+        return new LazyComponent(encoded, null);
+    }
+
+    /**
+     * Returns the component, decoding it on first access.
+     *
+     * @return the component
+     */
+    public Component get() {
+        Component component = this.component;
+        if (component == null) {
+            component = MinecraftTypes.readComponent(Unpooled.wrappedBuffer(this.encoded));
+            this.component = component;
+        }
+
+        return component;
+    }
+
+    /**
+     * Returns whether the component tree has been built yet.
+     *
+     * @return true if {@link #get()} does not need to decode anything
+     */
+    public boolean isMaterialized() {
+        return this.component != null;
+    }
+
+    public void write(ByteBuf buf) {
+        byte[] encoded = this.encoded;
+        if (encoded == null) {
+            // Components are immutable, so the encoded form can be kept for the next write
+            int start = buf.writerIndex();
+            MinecraftTypes.writeComponent(buf, this.component);
+            encoded = new byte[buf.writerIndex() - start];
+            buf.getBytes(start, encoded);
+            this.encoded = encoded;
+            return;
+        }
+
+        buf.writeBytes(encoded);
+    }
+
+    private byte[] encoded() {
+        byte[] encoded = this.encoded;
+        if (encoded == null) {
+            ByteBuf buf = Unpooled.buffer();
+            MinecraftTypes.writeComponent(buf, this.component);
+            encoded = new byte[buf.readableBytes()];
+            buf.readBytes(encoded);
+            this.encoded = encoded;
+        }
+
+        return encoded;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LazyComponent that)) {
+            return false;
+        }
+
+        return Arrays.equals(this.encoded(), that.encoded());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.encoded());
+    }
+
+    @Override
+    public String toString() {
+        return "LazyComponent(" + this.get() + ")";
+    }
+}
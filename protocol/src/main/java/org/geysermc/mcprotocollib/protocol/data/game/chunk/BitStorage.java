@@ -8,6 +8,8 @@ import lombok.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @EqualsAndHashCode
@@ -111,19 +113,248 @@ public class BitStorage {
 
     public int[] toIntArray() {
         int[] result = new int[this.size];
+        this.getAll(result);
+        return result;
+    }
+
+    /**
+     * Unpacks all values of this storage into the given array.
+     *
+     * @param out the array to write the values to, at least {@link #getSize()} long
+     */
+    public void getAll(int[] out) {
+        if (out.length < this.size) {
+            throw new IndexOutOfBoundsException("Array is smaller than the storage size");
+        }
+
+        int fullCells = this.size / this.valuesPerLong;
+        for (int cellIndex = 0, index = 0; cellIndex < fullCells; cellIndex++) {
+            long cell = this.data[cellIndex];
+            for (int i = 0; i < this.valuesPerLong; i++) {
+                out[index++] = (int) (cell & this.maxValue);
+                cell >>>= this.bitsPerEntry;
+            }
+        }
+
+        int index = fullCells * this.valuesPerLong;
+        if (index < this.size) {
+            long cell = this.data[fullCells];
+            for (; index < this.size; index++) {
+                out[index] = (int) (cell & this.maxValue);
+                cell >>>= this.bitsPerEntry;
+            }
+        }
+    }
+
+    /**
+     * Packs the given values into this storage, replacing all values.
+     *
+     * @param values the values to store, at least {@link #getSize()} long
+     */
+    public void setAll(int[] values) {
+        if (values.length < this.size) {
+            throw new IndexOutOfBoundsException("Array is smaller than the storage size");
+        }
+
+        // Range check everything up front so the packing loop below has no branches
+        int invalidBits = (int) ~this.maxValue | Integer.MIN_VALUE;
+        int invalid = 0;
+        for (int i = 0; i < this.size; i++) {
+            invalid |= values[i] & invalidBits;
+        }
+
+        if (invalid != 0) {
+            throw new IllegalArgumentException("Value cannot be outside of accepted range.");
+        }
+
+        int index = 0;
+        for (int cellIndex = 0; cellIndex < this.data.length; cellIndex++) {
+            int end = Math.min(index + this.valuesPerLong, this.size);
+            long cell = 0;
+            for (int bitIndex = 0; index < end; index++, bitIndex += this.bitsPerEntry) {
+                cell |= (long) values[index] << bitIndex;
+            }
+
+            this.data[cellIndex] = cell;
+        }
+    }
+
+    /**
+     * Sets every value of this storage to the given value.
+     *
+     * @param value the value to store
+     */
+    public void fill(int value) {
+        if (value < 0 || value > this.maxValue) {
+            throw new IllegalArgumentException("Value cannot be outside of accepted range.");
+        }
+
+        if (this.data.length == 0) {
+            return;
+        }
+
+        long cell = 0;
+        for (int i = 0; i < this.valuesPerLong; i++) {
+            cell |= ((long) value & this.maxValue) << (i * this.bitsPerEntry);
+        }
+
+        int last = this.data.length - 1;
+        Arrays.fill(this.data, 0, last, cell);
+
+        // Unused entries of the last cell stay zero, as they are in storages filled through set
+        int remaining = this.size - last * this.valuesPerLong;
+        this.data[last] = remaining * this.bitsPerEntry == Long.SIZE ? cell : cell & ((1L << (remaining * this.bitsPerEntry)) - 1);
+    }
+
+    /**
+     * Copies all values of this storage into another storage of the same size.
+     * The storages may use different amounts of bits per entry, as long as every value fits into the target.
+     *
+     * @param target the storage to copy the values into
+     */
+    public void copyTo(BitStorage target) {
+        if (target.size != this.size) {
+            throw new IllegalArgumentException("Storage sizes do not match");
+        }
+
+        if (target.bitsPerEntry == this.bitsPerEntry) {
+            System.arraycopy(this.data, 0, target.data, 0, this.data.length);
+            return;
+        }
+
+        int targetCellIndex = 0;
+        int targetBitIndex = 0;
+        long targetCell = 0;
         int index = 0;
         for (long cell : this.data) {
-            for (int bitIndex = 0; bitIndex < this.valuesPerLong; bitIndex++) {
-                result[index++] = (int) (cell & this.maxValue);
-                cell >>= this.bitsPerEntry;
+            int end = Math.min(index + this.valuesPerLong, this.size);
+            for (; index < end; index++) {
+                long value = cell & this.maxValue;
+                cell >>>= this.bitsPerEntry;
+                if (value > target.maxValue) {
+                    throw new IllegalArgumentException("Value cannot be outside of accepted range.");
+                }
 
-                if (index >= this.size) {
-                    return result;
+                targetCell |= value << targetBitIndex;
+                targetBitIndex += target.bitsPerEntry;
+                if (targetBitIndex > Long.SIZE - target.bitsPerEntry) {
+                    target.data[targetCellIndex++] = targetCell;
+                    targetCell = 0;
+                    targetBitIndex = 0;
                 }
             }
         }
 
-        return result;
+        if (targetBitIndex != 0) {
+            target.data[targetCellIndex] = targetCell;
+        }
+    }
+
+    /**
+     * Counts the entries of this storage holding the given value.
+     *
+     * @param value the value to count
+     * @return the amount of entries holding the value
+     */
+    public int count(int value) {
+        int count = 0;
+        int index = 0;
+        for (long cell : this.data) {
+            int end = Math.min(index + this.valuesPerLong, this.size);
+            for (; index < end; index++) {
+                if ((cell & this.maxValue) == value) {
+                    count++;
+                }
+
+                cell >>>= this.bitsPerEntry;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Finds the first entry of this storage holding the given value.
+     *
+     * @param value the value to search for
+     * @return the index of the first entry holding the value, or -1 if there is none
+     */
+    public int indexOf(int value) {
+        int index = 0;
+        for (long cell : this.data) {
+            int end = Math.min(index + this.valuesPerLong, this.size);
+            for (; index < end; index++) {
+                if ((cell & this.maxValue) == value) {
+                    return index;
+                }
+
+                cell >>>= this.bitsPerEntry;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Finds all entries of this storage holding the given value.
+     *
+     * @param value the value to search for
+     * @return the indices of all entries holding the value, in ascending order
+     */
+    public int[] indicesOf(int value) {
+        int[] indices = new int[this.count(value)];
+        int found = 0;
+        int index = 0;
+        for (long cell : this.data) {
+            int end = Math.min(index + this.valuesPerLong, this.size);
+            for (; index < end && found < indices.length; index++) {
+                if ((cell & this.maxValue) == value) {
+                    indices[found++] = index;
+                }
+
+                cell >>>= this.bitsPerEntry;
+            }
+        }
+
+        return indices;
+    }
+
+    /**
+     * Creates an iterator over all values of this storage, in index order.
+     * Values are read a cell at a time without per-index bounds checks.
+     *
+     * @return an iterator over the values of this storage
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int index;
+            private int cellIndex;
+            private int remainingInCell;
+            private long cell;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < BitStorage.this.size;
+            }
+
+            @Override
+            public int nextInt() {
+                if (this.index >= BitStorage.this.size) {
+                    throw new NoSuchElementException();
+                }
+
+                if (this.remainingInCell == 0) {
+                    this.cell = BitStorage.this.data[this.cellIndex++];
+                    this.remainingInCell = BitStorage.this.valuesPerLong;
+                }
+
+                int value = (int) (this.cell & BitStorage.this.maxValue);
+                this.cell >>>= BitStorage.this.bitsPerEntry;
+                this.remainingInCell--;
+                this.index++;
+                return value;
+            }
+        };
     }
 
     private int cellIndex(int index) {
@@ -0,0 +1,53 @@
+package org.geysermc.mcprotocollib.protocol.data.game.chunk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NonNull;
+
+/**
+ * The sections of a chunk column, from the bottom of the world to the top.
+ * Block coordinates are relative to the column, so y = 0 is the lowest block of the dimension.
+ */
+@Data
+@AllArgsConstructor
+public class ChunkColumn {
+    private final @NonNull ChunkSection @NonNull [] sections;
+
+    public ChunkColumn(int sectionCount) {
+        this.sections = new ChunkSection[sectionCount];
+        for (int i = 0; i < sectionCount; i++) {
+            this.sections[i] = new ChunkSection();
+        }
+    }
+
+    public ChunkColumn(ChunkColumn original) {
+        this.sections = new ChunkSection[original.sections.length];
+        for (int i = 0; i < this.sections.length; i++) {
+            this.sections[i] = new ChunkSection(original.sections[i]);
+        }
+    }
+
+    /**
+     * @param height the height of the dimension, as sent in its dimension type
+     * @return the amount of sections a chunk column of the dimension holds
+     */
+    public static int sectionCount(int height) {
+        return height >> 4;
+    }
+
+    public int getSectionCount() {
+        return this.sections.length;
+    }
+
+    public ChunkSection getSection(int index) {
+        return this.sections[index];
+    }
+
+    public int getBlock(int x, int y, int z) {
+        return this.sections[y >> 4].getBlock(x, y & 15, z);
+    }
+
+    public void setBlock(int x, int y, int z, int state) {
+        this.sections[y >> 4].setBlock(x, y & 15, z, state);
+    }
+}
@@ -1,5 +1,6 @@
 package org.geysermc.mcprotocollib.protocol.data.game.chunk;
 
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,7 +13,7 @@ import lombok.Setter;
 @Setter(AccessLevel.NONE)
 @AllArgsConstructor
 @EqualsAndHashCode
-public class ChunkSection {
+public class ChunkSection implements ReadableChunkSection {
 
     private static final int AIR = 0;
 
@@ -25,14 +26,28 @@ public class ChunkSection {
         this(0, DataPalette.createForChunk(), DataPalette.createForBiome());
     }
 
+    /**
+     * Copies a section. The palettes of the copy share their data with the original until either is modified.
+     */
     public ChunkSection(ChunkSection original) {
         this(original.blockCount, new DataPalette(original.chunkData), new DataPalette(original.biomeData));
     }
 
+    @Override
     public int getBlock(int x, int y, int z) {
         return this.chunkData.get(x, y, z);
     }
 
+    @Override
+    public int getBiome(int x, int y, int z) {
+        return this.biomeData.get(x, y, z);
+    }
+
+    @Override
+    public ChunkSection toChunkSection() {
+        return new ChunkSection(this);
+    }
+
     public void setBlock(int x, int y, int z, int state) {
         int curr = this.chunkData.set(x, y, z, state);
         if (state != AIR && curr == AIR) {
@@ -42,6 +57,22 @@ public class ChunkSection {
         }
     }
 
+    public boolean contains(int state) {
+        return this.chunkData.contains(state);
+    }
+
+    public int count(int state) {
+        return this.chunkData.count(state);
+    }
+
+    public int[] indicesOf(int state) {
+        return this.chunkData.indicesOf(state);
+    }
+
+    public Int2IntMap histogram() {
+        return this.chunkData.histogram();
+    }
+
     public boolean isBlockCountEmpty() {
         return this.blockCount == 0;
     }
@@ -1,11 +1,14 @@
 package org.geysermc.mcprotocollib.protocol.data.game.chunk;
 
-import lombok.AllArgsConstructor;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import lombok.ToString;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.GlobalPalette;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.ListPalette;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.MapPalette;
@@ -13,9 +16,21 @@ import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.Palette;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.PaletteType;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.SingletonPalette;
 
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A palette and the storage of palette ids it maps.
+ * <p>
+ * Copies made with {@link #DataPalette(DataPalette)} share the palette and storage of the original
+ * until one of them is modified through {@link #set(int, int, int, int)}. The palette and storage
+ * returned by the getters may therefore be shared, and must not be modified directly.
+ * <p>
+ * A palette may be copied from several threads at the same time, but must not be modified while it is copied.
+ */
 @Getter
 @Setter
-@AllArgsConstructor
 @EqualsAndHashCode
 @ToString
 public class DataPalette {
@@ -29,6 +44,28 @@ public class DataPalette {
     private @NonNull Palette palette;
     private BitStorage storage;
     private final PaletteType paletteType;
+    /**
+     * The amount of palettes sharing the palette and storage of this one, or null if they are not shared.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile AtomicInteger owners;
+    /**
+     * The optimized form of this palette, or null if it was not computed since this palette was last modified.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile @Nullable DataPalette optimized;
+
+    public DataPalette(@NonNull Palette palette, BitStorage storage, PaletteType paletteType) {
+        this.palette = palette;
+        this.storage = storage;
+        this.paletteType = paletteType;
+    }
 
     /*
      * @deprecated globalPaletteBits is no longer in use, use {@link #DataPalette(Palette, BitStorage, PaletteType)} instead.
@@ -39,7 +76,19 @@ public class DataPalette {
     }
 
     public DataPalette(DataPalette original) {
-        this(original.palette.copy(), original.storage == null ? null : new BitStorage(original.storage), original.paletteType);
+        this(original.palette, original.storage, original.paletteType);
+
+        // Concurrent copies of the same palette have to share a single counter
+        synchronized (original) {
+            AtomicInteger owners = original.owners;
+            if (owners == null) {
+                owners = new AtomicInteger(1);
+                original.owners = owners;
+            }
+
+            owners.incrementAndGet();
+            this.owners = owners;
+        }
     }
 
     public static DataPalette createForChunk() {
@@ -93,6 +142,9 @@ public class DataPalette {
      * @return the old value present in the storage.
      */
     public int set(int x, int y, int z, int state) {
+        this.ensureExclusive();
+        this.optimized = null;
+
         int id = this.palette.stateToId(state);
         if (id == -1) {
             resize();
@@ -111,6 +163,263 @@ public class DataPalette {
         }
     }
 
+    /**
+     * Checks whether any entry holds the given state. The palette is checked first,
+     * so states that are not in the palette are rejected without reading the storage.
+     */
+    public boolean contains(int state) {
+        if (this.storage == null) {
+            return this.palette.idToState(0) == state;
+        }
+
+        for (int id : this.lookupIds(state)) {
+            if (this.storage.indexOf(id) != -1) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public int count(int state) {
+        if (this.storage == null) {
+            return this.palette.idToState(0) == state ? this.paletteType.getStorageSize() : 0;
+        }
+
+        int count = 0;
+        for (int id : this.lookupIds(state)) {
+            count += this.storage.count(id);
+        }
+
+        return count;
+    }
+
+    /**
+     * @return the indices of all entries holding the given state, in ascending order
+     */
+    public int[] indicesOf(int state) {
+        if (this.storage == null) {
+            if (this.palette.idToState(0) != state) {
+                return new int[0];
+            }
+
+            int[] indices = new int[this.paletteType.getStorageSize()];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = i;
+            }
+
+            return indices;
+        }
+
+        int[] ids = this.lookupIds(state);
+        if (ids.length <= 1) {
+            return ids.length == 0 ? new int[0] : this.storage.indicesOf(ids[0]);
+        }
+
+        // The state is mapped more than once, so collect the entries of all its ids in a single pass
+        boolean[] matches = new boolean[1 << this.storage.getBitsPerEntry()];
+        int count = 0;
+        for (int id : ids) {
+            matches[id] = true;
+            count += this.storage.count(id);
+        }
+
+        int[] indices = new int[count];
+        int found = 0;
+        PrimitiveIterator.OfInt iterator = this.storage.iterator();
+        for (int index = 0; found < count; index++) {
+            if (matches[iterator.nextInt()]) {
+                indices[found++] = index;
+            }
+        }
+
+        return indices;
+    }
+
+    /**
+     * Counts how many entries hold each state.
+     *
+     * @return a map from each present state to its amount of entries
+     */
+    public Int2IntMap histogram() {
+        Int2IntOpenHashMap histogram = new Int2IntOpenHashMap();
+        if (this.storage == null) {
+            histogram.put(this.palette.idToState(0), this.paletteType.getStorageSize());
+            return histogram;
+        }
+
+        if (this.palette instanceof GlobalPalette) {
+            PrimitiveIterator.OfInt iterator = this.storage.iterator();
+            while (iterator.hasNext()) {
+                histogram.addTo(iterator.nextInt(), 1);
+            }
+
+            return histogram;
+        }
+
+        // Count per palette id first, palettes other than the global one are small
+        int[] counts = new int[1 << this.storage.getBitsPerEntry()];
+        PrimitiveIterator.OfInt iterator = this.storage.iterator();
+        while (iterator.hasNext()) {
+            counts[iterator.nextInt()]++;
+        }
+
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] != 0) {
+                histogram.addTo(this.palette.idToState(id), counts[id]);
+            }
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Shrinks the palette and storage to the smallest form holding the current states,
+     * down to a {@link SingletonPalette} if every entry holds the same state.
+     * Palettes only grow while states are set, so sections that had many states removed keep their width until optimized.
+     */
+    public void optimize() {
+        DataPalette optimized = this.toOptimized();
+        if (optimized != this) {
+            // The optimized palette and storage are new instances, so shared ones can be left as they are
+            this.releaseShared();
+            this.palette = optimized.palette;
+            this.storage = optimized.storage;
+            this.optimized = this;
+        }
+    }
+
+    /**
+     * Gets the {@link #optimize() optimized} form of this palette without modifying it.
+     * The result is kept until this palette is modified, and must not be modified itself.
+     *
+     * @return the optimized palette, or this palette if it cannot be shrunk
+     */
+    public DataPalette toOptimized() {
+        DataPalette optimized = this.optimized;
+        if (optimized == null) {
+            optimized = this.computeOptimized();
+            this.optimized = optimized;
+        }
+
+        return optimized;
+    }
+
+    public void setPalette(@NonNull Palette palette) {
+        this.palette = palette;
+        this.optimized = null;
+    }
+
+    public void setStorage(BitStorage storage) {
+        this.storage = storage;
+        this.optimized = null;
+    }
+
+    private DataPalette computeOptimized() {
+        if (this.storage == null) {
+            return this;
+        }
+
+        int[] values = this.storage.toIntArray();
+        Int2IntOpenHashMap ids = new Int2IntOpenHashMap();
+        ids.defaultReturnValue(-1);
+        int[] states = new int[1 << this.paletteType.getMaxBitsPerEntry()];
+        for (int i = 0; i < values.length; i++) {
+            int state = this.palette.idToState(values[i]);
+            int id = ids.get(state);
+            if (id == -1) {
+                if (ids.size() == states.length) {
+                    // Only the global palette can hold this many states
+                    return this;
+                }
+
+                id = ids.size();
+                ids.put(state, id);
+                states[id] = state;
+            }
+
+            values[i] = id;
+        }
+
+        if (ids.size() == 1) {
+            return new DataPalette(new SingletonPalette(states[0]), null, this.paletteType);
+        }
+
+        int bitsPerEntry = sanitizeBitsPerEntry(Integer.SIZE - Integer.numberOfLeadingZeros(ids.size() - 1));
+        if (bitsPerEntry == this.storage.getBitsPerEntry() && ids.size() == this.palette.size()) {
+            // Every palette entry is used and the storage is as narrow as it gets
+            return this;
+        }
+
+        Palette palette = createPalette(bitsPerEntry, this.paletteType);
+        for (int id = 0; id < ids.size(); id++) {
+            palette.stateToId(states[id]);
+        }
+
+        BitStorage storage = new BitStorage(bitsPerEntry, this.paletteType.getStorageSize());
+        storage.setAll(values);
+        return new DataPalette(palette, storage, this.paletteType);
+    }
+
+    /**
+     * Finds the palette id of a state without adding it to the palette.
+     *
+     * @return the id of the state, or -1 if it is not in the palette
+     */
+    /**
+     * Finds all ids mapped to the given state. Palettes read from the network may map a state more than once.
+     *
+     * @return the ids of the state in ascending order, empty if it is not in the palette
+     */
+    private int[] lookupIds(int state) {
+        if (this.palette instanceof GlobalPalette) {
+            return state >= 0 && state < 1L << this.storage.getBitsPerEntry() ? new int[]{state} : new int[0];
+        } else if (this.palette instanceof MapPalette mapPalette) {
+            return mapPalette.lookupIds(state);
+        }
+
+        int size = this.palette.size();
+        int[] ids = new int[size];
+        int found = 0;
+        for (int id = 0; id < size; id++) {
+            if (this.palette.idToState(id) == state) {
+                ids[found++] = id;
+            }
+        }
+
+        // A freshly created palette is empty, and its storage of zeros resolves to state 0
+        if (size == 0 && state == 0) {
+            return new int[]{0};
+        }
+
+        return Arrays.copyOf(ids, found);
+    }
+
+    /**
+     * Gives this palette its own copy of the palette and storage if they are still shared with other copies.
+     * The last remaining owner keeps the shared instances.
+     */
+    private void ensureExclusive() {
+        AtomicInteger owners = this.owners;
+        if (owners == null) {
+            return;
+        }
+
+        this.owners = null;
+        if (owners.decrementAndGet() > 0) {
+            this.palette = this.palette.copy();
+            this.storage = this.storage == null ? null : new BitStorage(this.storage);
+        }
+    }
+
+    private void releaseShared() {
+        AtomicInteger owners = this.owners;
+        if (owners != null) {
+            this.owners = null;
+            owners.decrementAndGet();
+        }
+    }
+
     private int sanitizeBitsPerEntry(int bitsPerEntry) {
         if (bitsPerEntry <= this.paletteType.getMaxBitsPerEntry()) {
             return Math.max(this.paletteType.getMinBitsPerEntry(), bitsPerEntry);
@@ -130,9 +439,18 @@ public class DataPalette {
         if (oldPalette instanceof SingletonPalette) {
             this.palette.stateToId(oldPalette.idToState(0));
         } else {
-            for (int i = 0; i < paletteType.getStorageSize(); i++) {
-                this.storage.set(i, this.palette.stateToId(oldPalette.idToState(oldData.get(i))));
+            // Old palettes that can be resized are small, so map each of their ids once
+            int[] ids = new int[oldPalette.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = this.palette.stateToId(oldPalette.idToState(i));
             }
+
+            int[] values = oldData.toIntArray();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = ids[values[i]];
+            }
+
+            this.storage.setAll(values);
         }
     }
 
@@ -0,0 +1,202 @@
+package org.geysermc.mcprotocollib.protocol.data.game.chunk;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.AbstractReferenceCounted;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.GlobalPalette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.ListPalette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.MapPalette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.Palette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.PaletteType;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.SingletonPalette;
+
+/**
+ * A read-only chunk section whose palettes and packed storage live in a single direct buffer,
+ * for keeping large amounts of sections in memory without them taking up heap space.
+ * <p>
+ * Each of the block and biome palettes is laid out as its palette states, as 4-byte ints,
+ * followed by the cells of its storage, as 8-byte longs. The global palette has no states,
+ * and a singleton palette has one state and no cells.
+ * <p>
+ * The section is reference counted and its buffer is freed once it is {@link #release() released}.
+ */
+public final class OffHeapChunkSection extends AbstractReferenceCounted implements ReadableChunkSection {
+    private static final int GLOBAL = -1;
+
+    private final ByteBuf buf;
+    private final int blockCount;
+
+    private final int blockBits;
+    private final int blockPaletteLength;
+    private final int blockDataOffset;
+
+    private final int biomeBits;
+    private final int biomePaletteLength;
+    private final int biomePaletteOffset;
+    private final int biomeDataOffset;
+
+    private OffHeapChunkSection(ByteBuf buf, int blockCount, DataPalette blocks, DataPalette biomes) {
+        this.buf = buf;
+        this.blockCount = blockCount;
+
+        this.blockBits = bitsPerEntry(blocks);
+        this.blockPaletteLength = paletteLength(blocks);
+        this.blockDataOffset = writePalette(buf, blocks, this.blockPaletteLength);
+
+        this.biomeBits = bitsPerEntry(biomes);
+        this.biomePaletteLength = paletteLength(biomes);
+        this.biomePaletteOffset = buf.writerIndex();
+        this.biomeDataOffset = writePalette(buf, biomes, this.biomePaletteLength);
+    }
+
+    /**
+     * Copies a section into a direct buffer allocated from the given allocator.
+     *
+     * @param section the section to copy
+     * @param allocator the allocator of the buffer
+     * @return the off-heap copy of the section
+     */
+    public static OffHeapChunkSection of(ChunkSection section, ByteBufAllocator allocator) {
+        int size = regionSize(section.getChunkData()) + regionSize(section.getBiomeData());
+        ByteBuf buf = allocator.directBuffer(size, size);
+        return new OffHeapChunkSection(buf, section.getBlockCount(), section.getChunkData(), section.getBiomeData());
+    }
+
+    @Override
+    public int getBlockCount() {
+        return this.blockCount;
+    }
+
+    @Override
+    public int getBlock(int x, int y, int z) {
+        int index = index(PaletteType.CHUNK, x, y, z);
+        return this.get(this.blockBits, 0, this.blockPaletteLength, this.blockDataOffset, index);
+    }
+
+    @Override
+    public int getBiome(int x, int y, int z) {
+        int index = index(PaletteType.BIOME, x, y, z);
+        return this.get(this.biomeBits, this.biomePaletteOffset, this.biomePaletteLength, this.biomeDataOffset, index);
+    }
+
+    @Override
+    public ChunkSection toChunkSection() {
+        DataPalette blocks = this.readPalette(PaletteType.CHUNK, this.blockBits, 0, this.blockPaletteLength, this.blockDataOffset);
+        DataPalette biomes = this.readPalette(PaletteType.BIOME, this.biomeBits, this.biomePaletteOffset, this.biomePaletteLength, this.biomeDataOffset);
+        return new ChunkSection(this.blockCount, blocks, biomes);
+    }
+
+    @Override
+    public OffHeapChunkSection retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public OffHeapChunkSection retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public OffHeapChunkSection touch() {
+        super.touch();
+        return this;
+    }
+
+    @Override
+    public OffHeapChunkSection touch(Object hint) {
+        this.buf.touch(hint);
+        return this;
+    }
+
+    @Override
+    protected void deallocate() {
+        this.buf.release();
+    }
+
+    private int get(int bitsPerEntry, int paletteOffset, int paletteLength, int dataOffset, int index) {
+        if (bitsPerEntry == 0) {
+            return this.buf.getInt(paletteOffset);
+        }
+
+        int valuesPerLong = Long.SIZE / bitsPerEntry;
+        int cellIndex = index / valuesPerLong;
+        int bitIndex = (index - cellIndex * valuesPerLong) * bitsPerEntry;
+        int id = (int) (this.buf.getLong(dataOffset + cellIndex * Long.BYTES) >>> bitIndex & ((1L << bitsPerEntry) - 1));
+        if (paletteLength == GLOBAL) {
+            return id;
+        }
+
+        return id < paletteLength ? this.buf.getInt(paletteOffset + id * Integer.BYTES) : 0;
+    }
+
+    private DataPalette readPalette(PaletteType paletteType, int bitsPerEntry, int paletteOffset, int paletteLength, int dataOffset) {
+        if (bitsPerEntry == 0) {
+            return new DataPalette(new SingletonPalette(this.buf.getInt(paletteOffset)), null, paletteType);
+        }
+
+        Palette palette;
+        if (paletteLength == GLOBAL) {
+            palette = GlobalPalette.INSTANCE;
+        } else {
+            // Filled by position, as the storage may refer to duplicate states by their own ids
+            int[] states = new int[paletteLength];
+            for (int i = 0; i < paletteLength; i++) {
+                states[i] = this.buf.getInt(paletteOffset + i * Integer.BYTES);
+            }
+
+            palette = bitsPerEntry <= paletteType.getMinBitsPerEntry() ? new ListPalette(bitsPerEntry, states) : new MapPalette(bitsPerEntry, states);
+        }
+
+        long[] data = new long[(paletteType.getStorageSize() + Long.SIZE / bitsPerEntry - 1) / (Long.SIZE / bitsPerEntry)];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = this.buf.getLong(dataOffset + i * Long.BYTES);
+        }
+
+        return new DataPalette(palette, new BitStorage(bitsPerEntry, paletteType.getStorageSize(), data), paletteType);
+    }
+
+    private static int index(PaletteType paletteType, int x, int y, int z) {
+        // Same layout as DataPalette
+        return y << paletteType.getMaxBitsPerEntry() | z << paletteType.getMinBitsPerEntry() | x;
+    }
+
+    private static int bitsPerEntry(DataPalette palette) {
+        return palette.getStorage() == null ? 0 : palette.getStorage().getBitsPerEntry();
+    }
+
+    private static int paletteLength(DataPalette palette) {
+        if (palette.getStorage() == null) {
+            return 1;
+        }
+
+        return palette.getPalette() instanceof GlobalPalette ? GLOBAL : palette.getPalette().size();
+    }
+
+    private static int regionSize(DataPalette palette) {
+        int paletteLength = paletteLength(palette);
+        int size = paletteLength == GLOBAL ? 0 : paletteLength * Integer.BYTES;
+        return palette.getStorage() == null ? size : size + palette.getStorage().getData().length * Long.BYTES;
+    }
+
+    /**
+     * Writes the palette states and storage cells of a palette.
+     *
+     * @return the offset of the storage cells
+     */
+    private static int writePalette(ByteBuf buf, DataPalette palette, int paletteLength) {
+        for (int i = 0; i < paletteLength; i++) {
+            buf.writeInt(palette.getPalette().idToState(i));
+        }
+
+        int dataOffset = buf.writerIndex();
+        if (palette.getStorage() != null) {
+            for (long cell : palette.getStorage().getData()) {
+                buf.writeLong(cell);
+            }
+        }
+
+        return dataOffset;
+    }
+}
@@ -0,0 +1,19 @@
+package org.geysermc.mcprotocollib.protocol.data.game.chunk;
+
+/**
+ * Read access to the blocks and biomes of a chunk section, regardless of where its data is stored.
+ */
+public interface ReadableChunkSection {
+    int getBlockCount();
+
+    int getBlock(int x, int y, int z);
+
+    int getBiome(int x, int y, int z);
+
+    /**
+     * Creates a mutable on-heap copy of this section.
+     *
+     * @return the copied section
+     */
+    ChunkSection toChunkSection();
+}
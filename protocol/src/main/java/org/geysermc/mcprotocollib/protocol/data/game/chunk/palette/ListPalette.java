@@ -38,6 +38,16 @@ public class ListPalette implements Palette {
         this.nextId = paletteLength;
     }
 
+    /**
+     * Creates a palette mapping each id to the state at the same index, keeping duplicate states as they are.
+     */
+    public ListPalette(int bitsPerEntry, int[] states) {
+        this(bitsPerEntry);
+
+        System.arraycopy(states, 0, this.data, 0, states.length);
+        this.nextId = states.length;
+    }
+
     @Override
     public int size() {
         return this.nextId;
@@ -1,10 +1,6 @@
 package org.geysermc.mcprotocollib.protocol.data.game.chunk.palette;
 
 import io.netty.buffer.ByteBuf;
-import it.unimi.dsi.fastutil.ints.Int2IntMap;
-import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
 
@@ -12,22 +8,39 @@ import java.util.Arrays;
 
 /**
  * A palette backed by a map.
+ * <p>
+ * States are mapped to ids with a small open-addressing table with twice as many slots as the palette's capacity,
+ * so lookups rarely probe more than one or two slots and the whole table stays within a few cache lines.
  */
-@AllArgsConstructor(access = AccessLevel.PRIVATE)
 @EqualsAndHashCode
 public class MapPalette implements Palette {
     private static final int MISSING_ID = -1;
     private final int capacity;
 
     private final int[] idToState;
-    private final Int2IntMap stateToId = new Int2IntOpenHashMap();
+    /**
+     * The state held by each slot of the table.
+     */
+    @EqualsAndHashCode.Exclude
+    private final int[] slotStates;
+    /**
+     * The id held by each slot of the table, plus one so that 0 marks an empty slot.
+     */
+    @EqualsAndHashCode.Exclude
+    private final int[] slotIds;
     private int nextId = 0;
+    /**
+     * Whether any state is mapped to more than one id, which only happens for palettes read from the network.
+     */
+    @EqualsAndHashCode.Exclude
+    private boolean duplicateStates;
 
     public MapPalette(int bitsPerEntry) {
         this.capacity = 1 << bitsPerEntry;
 
         this.idToState = new int[this.capacity];
-        this.stateToId.defaultReturnValue(MISSING_ID);
+        this.slotStates = new int[this.capacity << 1];
+        this.slotIds = new int[this.capacity << 1];
     }
 
     public MapPalette(int bitsPerEntry, ByteBuf in) {
@@ -35,13 +48,32 @@ public class MapPalette implements Palette {
 
         int paletteLength = MinecraftTypes.readVarInt(in);
         for (int i = 0; i < paletteLength; i++) {
-            int state = MinecraftTypes.readVarInt(in);
-            this.idToState[i] = state;
-            this.stateToId.putIfAbsent(state, i);
+            this.putPositional(i, MinecraftTypes.readVarInt(in));
         }
         this.nextId = paletteLength;
     }
 
+    /**
+     * Creates a palette mapping each id to the state at the same index, keeping duplicate states as they are.
+     */
+    public MapPalette(int bitsPerEntry, int[] states) {
+        this(bitsPerEntry);
+
+        for (int i = 0; i < states.length; i++) {
+            this.putPositional(i, states[i]);
+        }
+        this.nextId = states.length;
+    }
+
+    private MapPalette(MapPalette original) {
+        this.capacity = original.capacity;
+        this.idToState = Arrays.copyOf(original.idToState, original.idToState.length);
+        this.slotStates = Arrays.copyOf(original.slotStates, original.slotStates.length);
+        this.slotIds = Arrays.copyOf(original.slotIds, original.slotIds.length);
+        this.nextId = original.nextId;
+        this.duplicateStates = original.duplicateStates;
+    }
+
     @Override
     public int size() {
         return this.nextId;
@@ -49,16 +81,43 @@ public class MapPalette implements Palette {
 
     @Override
     public int stateToId(int state) {
-        int id = this.stateToId.get(state);
+        int slot = this.findSlot(state);
+        int id = this.slotIds[slot] - 1;
         if (id == MISSING_ID && this.size() < this.capacity) {
             id = this.nextId++;
             this.idToState[id] = state;
-            this.stateToId.put(state, id);
+            this.slotStates[slot] = state;
+            this.slotIds[slot] = id + 1;
         }
 
         return id;
     }
 
+    /**
+     * Finds the ids of a state without mapping it.
+     *
+     * @return the ids of the state in ascending order, empty if it has not been mapped
+     */
+    public int[] lookupIds(int state) {
+        int id = this.slotIds[this.findSlot(state)] - 1;
+        if (id == MISSING_ID) {
+            return new int[0];
+        } else if (!this.duplicateStates) {
+            return new int[]{id};
+        }
+
+        // The table only holds the first id of each state
+        int[] ids = new int[this.size() - id];
+        int found = 0;
+        for (int i = id; i < this.size(); i++) {
+            if (this.idToState[i] == state) {
+                ids[found++] = i;
+            }
+        }
+
+        return Arrays.copyOf(ids, found);
+    }
+
     @Override
     public int idToState(int id) {
         if (id >= 0 && id < this.size()) {
@@ -70,8 +129,35 @@ public class MapPalette implements Palette {
 
     @Override
     public MapPalette copy() {
-        MapPalette mapPalette = new MapPalette(this.capacity, Arrays.copyOf(this.idToState, this.idToState.length), this.nextId);
-        mapPalette.stateToId.putAll(this.stateToId);
-        return mapPalette;
+        return new MapPalette(this);
+    }
+
+    /**
+     * Maps an id to a state. States that are mapped more than once are looked up as their first id.
+     */
+    private void putPositional(int id, int state) {
+        this.idToState[id] = state;
+        int slot = this.findSlot(state);
+        if (this.slotIds[slot] == 0) {
+            this.slotStates[slot] = state;
+            this.slotIds[slot] = id + 1;
+        } else {
+            this.duplicateStates = true;
+        }
+    }
+
+    /**
+     * Finds the slot holding the given state, or the empty slot it would be inserted into.
+     * The table is never more than half full, so an empty slot always exists.
+     */
+    private int findSlot(int state) {
+        int mask = this.slotIds.length - 1;
+        int hash = state * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (this.slotIds[slot] != 0 && this.slotStates[slot] != state) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
     }
 }
@@ -21,6 +21,10 @@ public class BooleanMetadataType extends MetadataType<Boolean> {
         return this.primitiveFactory.createPrimitive(id, this, this.primitiveReader.readPrimitive(input));
     }
 
+    public boolean readMetadataPrimitive(ByteBuf input) {
+        return this.primitiveReader.readPrimitive(input);
+    }
+
     public void writeMetadataPrimitive(ByteBuf output, boolean value) {
         this.primitiveWriter.writePrimitive(output, value);
     }
@@ -21,6 +21,10 @@ public class ByteMetadataType extends MetadataType<Byte> {
         return this.primitiveFactory.createPrimitive(id, this, this.primitiveReader.readPrimitive(input));
     }
 
+    public byte readMetadataPrimitive(ByteBuf input) {
+        return this.primitiveReader.readPrimitive(input);
+    }
+
     public void writeMetadataPrimitive(ByteBuf output, byte value) {
         this.primitiveWriter.writePrimitive(output, value);
     }
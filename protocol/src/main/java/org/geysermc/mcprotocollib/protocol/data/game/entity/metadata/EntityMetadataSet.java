@@ -0,0 +1,414 @@
+package org.geysermc.mcprotocollib.protocol.data.game.entity.metadata;
+
+import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.BooleanEntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.ByteEntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.FloatEntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.IntEntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.LongEntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.ObjectEntityMetadata;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The metadata of an entity, keyed by metadata index. Each index holds at most one value.
+ * <p>
+ * Values of byte, int, long, float and boolean types are stored unboxed, and no {@link EntityMetadata}
+ * objects are created unless asked for through {@link #get(int)} or {@link #toArray()}.
+ * The setters return whether they changed the set, so that callers can track which values need to be resent.
+ */
+public final class EntityMetadataSet {
+    /**
+     * The highest metadata index, as 255 marks the end of the metadata on the network.
+     */
+    public static final int MAX_INDEX = 254;
+
+    private MetadataType<?>[] types;
+    private long[] values;
+    private Object @Nullable [] objects;
+    private int size;
+
+    public EntityMetadataSet() {
+        this.types = new MetadataType<?>[16];
+        this.values = new long[16];
+    }
+
+    public EntityMetadataSet(@NonNull EntityMetadataSet other) {
+        this.types = other.types.clone();
+        this.values = other.values.clone();
+        this.objects = other.objects == null ? null : other.objects.clone();
+        this.size = other.size;
+    }
+
+    public static EntityMetadataSet of(@NonNull EntityMetadata<?, ?> @NonNull ... metadata) {
+        EntityMetadataSet set = new EntityMetadataSet();
+        for (EntityMetadata<?, ?> entry : metadata) {
+            set.set(entry);
+        }
+
+        return set;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean contains(int index) {
+        return index >= 0 && index < this.types.length && this.types[index] != null;
+    }
+
+    /**
+     * @return the type of the value at the given index, or null if there is none
+     */
+    public @Nullable MetadataType<?> getType(int index) {
+        return index >= 0 && index < this.types.length ? this.types[index] : null;
+    }
+
+    /**
+     * Finds the next index holding a value, for iterating over the set:
+     * {@code for (int i = set.nextIndex(0); i >= 0; i = set.nextIndex(i + 1))}.
+     *
+     * @param from the index to start searching at
+     * @return the first index at or after {@code from} holding a value, or -1 if there is none
+     */
+    public int nextIndex(int from) {
+        for (int index = Math.max(from, 0); index < this.types.length; index++) {
+            if (this.types[index] != null) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    public byte getByte(int index) {
+        this.checkType(index, ByteMetadataType.class);
+        return (byte) this.values[index];
+    }
+
+    public int getInt(int index) {
+        this.checkType(index, IntMetadataType.class);
+        return (int) this.values[index];
+    }
+
+    public long getLong(int index) {
+        this.checkType(index, LongMetadataType.class);
+        return this.values[index];
+    }
+
+    public float getFloat(int index) {
+        this.checkType(index, FloatMetadataType.class);
+        return Float.intBitsToFloat((int) this.values[index]);
+    }
+
+    public boolean getBoolean(int index) {
+        this.checkType(index, BooleanMetadataType.class);
+        return this.values[index] != 0;
+    }
+
+    /**
+     * Gets the value at the given index, boxing it if it is stored unboxed.
+     *
+     * @return the value, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable T getValue(int index) {
+        MetadataType<?> type = this.getType(index);
+        if (type == null) {
+            return null;
+        }
+
+        long value = this.values[index];
+        if (type instanceof ByteMetadataType) {
+            return (T) Byte.valueOf((byte) value);
+        } else if (type instanceof IntMetadataType) {
+            return (T) Integer.valueOf((int) value);
+        } else if (type instanceof LongMetadataType) {
+            return (T) Long.valueOf(value);
+        } else if (type instanceof FloatMetadataType) {
+            return (T) Float.valueOf(Float.intBitsToFloat((int) value));
+        } else if (type instanceof BooleanMetadataType) {
+            return (T) Boolean.valueOf(value != 0);
+        }
+
+        return (T) this.objects[index];
+    }
+
+    public boolean setByte(int index, @NonNull ByteMetadataType type, byte value) {
+        return this.setPrimitive(index, type, value);
+    }
+
+    public boolean setInt(int index, @NonNull IntMetadataType type, int value) {
+        return this.setPrimitive(index, type, value);
+    }
+
+    public boolean setLong(int index, @NonNull LongMetadataType type, long value) {
+        return this.setPrimitive(index, type, value);
+    }
+
+    public boolean setFloat(int index, @NonNull FloatMetadataType type, float value) {
+        return this.setPrimitive(index, type, Float.floatToIntBits(value));
+    }
+
+    public boolean setBoolean(int index, @NonNull BooleanMetadataType type, boolean value) {
+        return this.setPrimitive(index, type, value ? 1 : 0);
+    }
+
+    /**
+     * Sets the value at the given index. Values of primitive types are unboxed.
+     *
+     * @return whether the value or type at the index changed
+     */
+    public <T> boolean set(int index, @NonNull MetadataType<T> type, T value) {
+        if (type instanceof ByteMetadataType) {
+            return this.setPrimitive(index, type, (Byte) value);
+        } else if (type instanceof IntMetadataType) {
+            return this.setPrimitive(index, type, (Integer) value);
+        } else if (type instanceof LongMetadataType) {
+            return this.setPrimitive(index, type, (Long) value);
+        } else if (type instanceof FloatMetadataType) {
+            return this.setPrimitive(index, type, Float.floatToIntBits((Float) value));
+        } else if (type instanceof BooleanMetadataType) {
+            return this.setPrimitive(index, type, (Boolean) value ? 1 : 0);
+        }
+
+        MetadataType<?> previous = this.put(index, type);
+        this.values[index] = 0;
+        if (this.objects == null) {
+            this.objects = new Object[this.types.length];
+        }
+
+        boolean changed = previous != type || !Objects.equals(this.objects[index], value);
+        this.objects[index] = value;
+        return changed;
+    }
+
+    /**
+     * @return whether the value or type at the index of the metadata changed
+     */
+    @SuppressWarnings("unchecked")
+    public boolean set(@NonNull EntityMetadata<?, ?> metadata) {
+        int index = metadata.getId();
+        if (metadata instanceof ByteEntityMetadata byteMetadata) {
+            return this.setByte(index, byteMetadata.getType(), byteMetadata.getPrimitiveValue());
+        } else if (metadata instanceof IntEntityMetadata intMetadata) {
+            return this.setInt(index, intMetadata.getType(), intMetadata.getPrimitiveValue());
+        } else if (metadata instanceof LongEntityMetadata longMetadata) {
+            return this.setLong(index, longMetadata.getType(), longMetadata.getPrimitiveValue());
+        } else if (metadata instanceof FloatEntityMetadata floatMetadata) {
+            return this.setFloat(index, floatMetadata.getType(), floatMetadata.getPrimitiveValue());
+        } else if (metadata instanceof BooleanEntityMetadata booleanMetadata) {
+            return this.setBoolean(index, booleanMetadata.getType(), booleanMetadata.getPrimitiveValue());
+        } else {
+            return this.set(index, (MetadataType<Object>) (MetadataType<?>) metadata.getType(), metadata.getValue());
+        }
+    }
+
+    public void remove(int index) {
+        if (!this.contains(index)) {
+            return;
+        }
+
+        this.types[index] = null;
+        this.values[index] = 0;
+        if (this.objects != null) {
+            this.objects[index] = null;
+        }
+
+        this.size--;
+    }
+
+    public void clear() {
+        Arrays.fill(this.types, null);
+        Arrays.fill(this.values, 0);
+        if (this.objects != null) {
+            Arrays.fill(this.objects, null);
+        }
+
+        this.size = 0;
+    }
+
+    /**
+     * Creates an {@link EntityMetadata} for the value at the given index.
+     *
+     * @return the metadata, or null if there is no value at the index
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public @Nullable EntityMetadata<?, ?> get(int index) {
+        MetadataType<?> type = this.getType(index);
+        if (type == null) {
+            return null;
+        }
+
+        long value = this.values[index];
+        if (type instanceof ByteMetadataType byteType) {
+            return new ByteEntityMetadata(index, byteType, (byte) value);
+        } else if (type instanceof IntMetadataType intType) {
+            return new IntEntityMetadata(index, intType, (int) value);
+        } else if (type instanceof LongMetadataType longType) {
+            return new LongEntityMetadata(index, longType, value);
+        } else if (type instanceof FloatMetadataType floatType) {
+            return new FloatEntityMetadata(index, floatType, Float.intBitsToFloat((int) value));
+        } else if (type instanceof BooleanMetadataType booleanType) {
+            return new BooleanEntityMetadata(index, booleanType, value != 0);
+        }
+
+        return new ObjectEntityMetadata(index, type, this.objects[index]);
+    }
+
+    /**
+     * @return the values of this set as {@link EntityMetadata}, ordered by index
+     */
+    public EntityMetadata<?, ?>[] toArray() {
+        EntityMetadata<?, ?>[] metadata = new EntityMetadata<?, ?>[this.size];
+        int i = 0;
+        for (int index = this.nextIndex(0); index >= 0; index = this.nextIndex(index + 1)) {
+            metadata[i++] = this.get(index);
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Finds the values of this set that the given set does not have, e.g. to only send the metadata that changed
+     * since the given set was sent. Values are compared by type and with {@link Object#equals(Object)}.
+     *
+     * @param previous the set to compare against
+     * @return a new set with the values of this set that are missing from or differ in the given set
+     */
+    public EntityMetadataSet diff(@NonNull EntityMetadataSet previous) {
+        EntityMetadataSet diff = new EntityMetadataSet();
+        for (int index = this.nextIndex(0); index >= 0; index = this.nextIndex(index + 1)) {
+            if (!this.entryEquals(index, previous)) {
+                diff.copyEntry(index, this);
+            }
+        }
+
+        return diff;
+    }
+
+    /**
+     * Copies all values of the given set into this set, replacing the values this set has at the same indices.
+     *
+     * @param other the set to copy the values of
+     */
+    public void merge(@NonNull EntityMetadataSet other) {
+        for (int index = other.nextIndex(0); index >= 0; index = other.nextIndex(index + 1)) {
+            this.copyEntry(index, other);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EntityMetadataSet that) || this.size != that.size) {
+            return false;
+        }
+
+        for (int index = this.nextIndex(0); index >= 0; index = this.nextIndex(index + 1)) {
+            if (!this.entryEquals(index, that)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int index = this.nextIndex(0); index >= 0; index = this.nextIndex(index + 1)) {
+            Object object = this.objects == null ? null : this.objects[index];
+            hash = 31 * hash + Objects.hash(index, this.types[index].getId(), this.values[index], object);
+        }
+
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityMetadataSet" + Arrays.toString(this.toArray());
+    }
+
+    private boolean entryEquals(int index, EntityMetadataSet other) {
+        MetadataType<?> type = this.types[index];
+        if (type != other.getType(index) || this.values[index] != other.values[index]) {
+            return false;
+        }
+
+        Object object = this.objects == null ? null : this.objects[index];
+        Object otherObject = other.objects == null ? null : other.objects[index];
+        return Objects.equals(object, otherObject);
+    }
+
+    private void copyEntry(int index, EntityMetadataSet from) {
+        MetadataType<?> type = from.types[index];
+        this.put(index, type);
+        this.values[index] = from.values[index];
+        Object object = from.objects == null ? null : from.objects[index];
+        // Object values are read from the array even when they are null
+        if (this.objects != null || !isPrimitive(type)) {
+            if (this.objects == null) {
+                this.objects = new Object[this.types.length];
+            }
+
+            this.objects[index] = object;
+        }
+    }
+
+    private static boolean isPrimitive(MetadataType<?> type) {
+        return type instanceof ByteMetadataType || type instanceof IntMetadataType || type instanceof LongMetadataType
+                || type instanceof FloatMetadataType || type instanceof BooleanMetadataType;
+    }
+
+    private boolean setPrimitive(int index, MetadataType<?> type, long value) {
+        MetadataType<?> previous = this.put(index, type);
+        boolean changed = previous != type || this.values[index] != value;
+        this.values[index] = value;
+        if (this.objects != null) {
+            this.objects[index] = null;
+        }
+
+        return changed;
+    }
+
+    /**
+     * @return the previous type at the index, or null if there was none
+     */
+    private @Nullable MetadataType<?> put(int index, MetadataType<?> type) {
+        if (index < 0 || index > MAX_INDEX) {
+            throw new IllegalArgumentException("Metadata index must be between 0 and " + MAX_INDEX + ", got " + index);
+        }
+
+        if (index >= this.types.length) {
+            int capacity = Math.min(Math.max(index + 1, this.types.length << 1), MAX_INDEX + 1);
+            this.types = Arrays.copyOf(this.types, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+            if (this.objects != null) {
+                this.objects = Arrays.copyOf(this.objects, capacity);
+            }
+        }
+
+        MetadataType<?> previous = this.types[index];
+        if (previous == null) {
+            this.size++;
+        }
+
+        this.types[index] = type;
+        return previous;
+    }
+
+    private void checkType(int index, Class<? extends MetadataType<?>> expected) {
+        if (!expected.isInstance(this.getType(index))) {
+            throw new IllegalArgumentException("Metadata at index " + index + " is " + this.getType(index) + ", not a " + expected.getSimpleName());
+        }
+    }
+}
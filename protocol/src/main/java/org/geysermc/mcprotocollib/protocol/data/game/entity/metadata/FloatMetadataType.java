@@ -21,6 +21,10 @@ public class FloatMetadataType extends MetadataType<Float> {
         return this.primitiveFactory.createPrimitive(id, this, this.primitiveReader.readPrimitive(input));
     }
 
+    public float readMetadataPrimitive(ByteBuf input) {
+        return this.primitiveReader.readPrimitive(input);
+    }
+
     public void writeMetadataPrimitive(ByteBuf output, float value) {
         this.primitiveWriter.writePrimitive(output, value);
     }
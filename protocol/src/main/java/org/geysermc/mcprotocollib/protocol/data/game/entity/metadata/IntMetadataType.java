@@ -21,6 +21,10 @@ public class IntMetadataType extends MetadataType<Integer> {
         return this.primitiveFactory.createPrimitive(id, this, this.primitiveReader.readPrimitive(input));
     }
 
+    public int readMetadataPrimitive(ByteBuf input) {
+        return this.primitiveReader.readPrimitive(input);
+    }
+
     public void writeMetadataPrimitive(ByteBuf output, int value) {
         this.primitiveWriter.writePrimitive(output, value);
     }
@@ -21,6 +21,10 @@ public class LongMetadataType extends MetadataType<Long> {
         return this.primitiveFactory.createPrimitive(id, this, this.primitiveReader.readPrimitive(input));
     }
 
+    public long readMetadataPrimitive(ByteBuf input) {
+        return this.primitiveReader.readPrimitive(input);
+    }
+
     public void writeMetadataPrimitive(ByteBuf output, long value) {
         this.primitiveWriter.writePrimitive(output, value);
     }
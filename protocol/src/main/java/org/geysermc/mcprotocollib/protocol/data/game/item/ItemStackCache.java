@@ -0,0 +1,108 @@
+package org.geysermc.mcprotocollib.protocol.data.game.item;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.mcprotocollib.protocol.data.game.item.component.DataComponents;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded cache for sharing equal item stacks and data components, e.g. between the inventory packets
+ * that servers resend with the same items. Interned items are usually the same instance, which makes
+ * comparing them cheap and lets the decoded duplicates be collected right away.
+ * <p>
+ * The cache has a fixed amount of slots, each holding the last interned value that hashed to it,
+ * and only weakly references its values. The data components of interned items are
+ * {@link DataComponents#unmodifiableCopy() unmodifiable}, but their values are not copied and must not be modified.
+ * All methods are thread-safe.
+ *
+ * @see org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes#setItemStackCache(ItemStackCache)
+ */
+public final class ItemStackCache {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final AtomicReferenceArray<WeakReference<ItemStack>> stacks;
+    private final AtomicReferenceArray<WeakReference<DataComponents>> components;
+    private final int mask;
+
+    public ItemStackCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the amount of slots for item stacks and for data components, rounded up to a power of two
+     */
+    public ItemStackCache(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + (1 << 30) + ", got " + capacity);
+        }
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.stacks = new AtomicReferenceArray<>(size);
+        this.components = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Gets the cached item stack equal to the given one, or caches it if there is none.
+     *
+     * @return the cached item stack, which has unmodifiable data components
+     */
+    public @Nullable ItemStack intern(@Nullable ItemStack stack) {
+        if (stack == null) {
+            return null;
+        }
+
+        DataComponents components = this.intern(stack.getDataComponents());
+        // The components are interned, so their identity is enough to compare them
+        int hash = (31 * stack.getId() + stack.getAmount()) * 31 + System.identityHashCode(components);
+        int slot = slot(hash, this.mask);
+        WeakReference<ItemStack> reference = this.stacks.get(slot);
+        ItemStack cached = reference == null ? null : reference.get();
+        if (cached != null && cached.getId() == stack.getId() && cached.getAmount() == stack.getAmount()
+                && cached.getDataComponents() == components) {
+            return cached;
+        }
+
+        if (components != stack.getDataComponents()) {
+            stack = new ItemStack(stack.getId(), stack.getAmount(), components);
+        }
+
+        this.stacks.set(slot, new WeakReference<>(stack));
+        return stack;
+    }
+
+    /**
+     * Gets the cached data components equal to the given ones, or caches an unmodifiable copy of them if there are none.
+     *
+     * @return the cached data components, which are unmodifiable
+     */
+    public @Nullable DataComponents intern(@Nullable DataComponents components) {
+        if (components == null) {
+            return null;
+        }
+
+        int slot = slot(components.hashCode(), this.mask);
+        WeakReference<DataComponents> reference = this.components.get(slot);
+        DataComponents cached = reference == null ? null : reference.get();
+        if (cached != null && (cached == components || cached.equals(components))) {
+            return cached;
+        }
+
+        DataComponents copy = components.isModifiable() ? components.unmodifiableCopy() : components;
+        this.components.set(slot, new WeakReference<>(copy));
+        return copy;
+    }
+
+    public void clear() {
+        for (int i = 0; i <= this.mask; i++) {
+            this.stacks.set(i, null);
+            this.components.set(i, null);
+        }
+    }
+
+    private static int slot(int hash, int mask) {
+        hash *= 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+}
@@ -1,21 +1,113 @@
 package org.geysermc.mcprotocollib.protocol.data.game.item.component;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
 import lombok.NonNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
-@Data
-@AllArgsConstructor
+/**
+ * The components of an item, stored as an array ordered by component type id together with a bitset
+ * of the ids that are present. Components with a null value mark components removed from the item's defaults.
+ * <p>
+ * Like other mutable collections, instances must not be modified from multiple threads.
+ * <p>
+ * Instances shared between items, e.g. by an {@link org.geysermc.mcprotocollib.protocol.data.game.item.ItemStackCache},
+ * are {@link #unmodifiableCopy() unmodifiable}. Use {@link #clone()} to get a modifiable copy. A clone of an
+ * unmodifiable instance shares its arrays until the clone is modified, so it does not copy anything.
+ * Copying a modifiable instance copies its arrays, so copying never writes to the copied instance.
+ * Only the arrays are protected: the component values themselves, e.g. lists of items, are shared by all copies.
+ * The hash code of unmodifiable instances is cached, so their values must never be modified.
+ */
 public class DataComponents {
-    private final Map<DataComponentType<?>, DataComponent<?, ?>> dataComponents;
+    private static final long[] EMPTY_MASK = new long[0];
+    private static final DataComponent<?, ?>[] EMPTY_COMPONENTS = new DataComponent<?, ?>[0];
+
+    private long[] mask;
+    private DataComponent<?, ?>[] components;
+    private int size;
+    /**
+     * Whether the arrays may be shared with a clone and have to be copied before they are modified.
+     */
+    private boolean shared;
+    private boolean modifiable = true;
+    /**
+     * The hash code of an unmodifiable instance once it was computed, or 0. Modifiable instances always compute it,
+     * as their components can change.
+     */
+    private int hash;
+    private @Nullable Map<DataComponentType<?>, DataComponent<?, ?>> view;
+
+    public DataComponents() {
+        this.mask = EMPTY_MASK;
+        this.components = EMPTY_COMPONENTS;
+    }
+
+    /**
+     * Copies the components of the given map. Changes to the map are not reflected in this object,
+     * use {@link #getDataComponents()} for a live map view.
+     * <p>
+     * Before components were stored as an array, this wrapped the map, so changes to it were visible in this object.
+     */
+    public DataComponents(@NonNull Map<DataComponentType<?>, DataComponent<?, ?>> dataComponents) {
+        this();
+        for (DataComponent<?, ?> component : dataComponents.values()) {
+            this.put(component);
+        }
+    }
+
+    private DataComponents(DataComponents other) {
+        this.size = other.size;
+        if (other.modifiable) {
+            // The copied instance would have to be told to copy its arrays before it is modified
+            this.mask = other.mask.clone();
+            this.components = other.components.clone();
+        } else {
+            // Unmodifiable instances never modify their arrays, and may be used from multiple threads
+            this.mask = other.mask;
+            this.components = other.components;
+            this.shared = true;
+        }
+    }
+
+    /**
+     * Gets a live map view of the components. Changes to the map are applied to this object and vice versa.
+     *
+     * @return the components by type, iterated in order of their type ids
+     */
+    public Map<DataComponentType<?>, DataComponent<?, ?>> getDataComponents() {
+        if (this.view == null) {
+            this.view = new View();
+        }
+
+        return this.view;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean contains(@NonNull DataComponentType<?> type) {
+        return this.has(type.getId());
+    }
+
+    public @Nullable DataComponent<?, ?> getComponent(@NonNull DataComponentType<?> type) {
+        int id = type.getId();
+        return this.has(id) ? this.components[this.rank(id)] : null;
+    }
 
     @Nullable
     public <T> T get(DataComponentType<T> type) {
-        DataComponent component = dataComponents.get(type);
+        DataComponent component = this.getComponent(type);
         return component == null ? null : (T) component.getValue();
     }
 
@@ -26,15 +118,245 @@ public class DataComponents {
 
     public <T> void put(DataComponentType<T> type, @NonNull T value) {
         if (type instanceof IntComponentType intType) {
-            dataComponents.put(intType, intType.primitiveFactory.createPrimitive(intType, (Integer) value));
+            this.put(intType.primitiveFactory.createPrimitive(intType, (Integer) value));
         } else if (type instanceof BooleanComponentType boolType) {
-            dataComponents.put(boolType, boolType.primitiveFactory.createPrimitive(boolType, (Boolean) value));
+            this.put(boolType.primitiveFactory.createPrimitive(boolType, (Boolean) value));
         } else {
-            dataComponents.put(type, type.dataComponentFactory.create(type, value));
+            this.put(type.dataComponentFactory.create(type, value));
+        }
+    }
+
+    /**
+     * Adds a component, replacing the component of the same type if there is one.
+     */
+    public void put(@NonNull DataComponent<?, ?> component) {
+        this.checkModifiable();
+        this.ensureExclusive();
+
+        int id = component.getType().getId();
+        if (this.has(id)) {
+            this.components[this.rank(id)] = component;
+            return;
+        }
+
+        int word = id >> 6;
+        if (word >= this.mask.length) {
+            this.mask = Arrays.copyOf(this.mask, word + 1);
+        }
+
+        if (this.size == this.components.length) {
+            this.components = Arrays.copyOf(this.components, Math.max(4, this.size << 1));
+        }
+
+        int index = this.rank(id);
+        System.arraycopy(this.components, index, this.components, index + 1, this.size - index);
+        this.components[index] = component;
+        this.mask[word] |= 1L << id;
+        this.size++;
+    }
+
+    /**
+     * @return the removed component, or null if there was no component of the type
+     */
+    public @Nullable DataComponent<?, ?> remove(@NonNull DataComponentType<?> type) {
+        this.checkModifiable();
+        int id = type.getId();
+        if (!this.has(id)) {
+            return null;
         }
+
+        this.ensureExclusive();
+        int index = this.rank(id);
+        DataComponent<?, ?> component = this.components[index];
+        System.arraycopy(this.components, index + 1, this.components, index, this.size - index - 1);
+        this.components[--this.size] = null;
+        this.mask[id >> 6] &= ~(1L << id);
+        return component;
     }
 
+    public void clear() {
+        this.checkModifiable();
+        this.mask = EMPTY_MASK;
+        this.components = EMPTY_COMPONENTS;
+        this.size = 0;
+        this.shared = false;
+    }
+
+    /**
+     * @return a modifiable copy, sharing the arrays of this object until the copy is modified if this object is unmodifiable
+     */
     public DataComponents clone() {
-        return new DataComponents(new HashMap<>(dataComponents));
+        return new DataComponents(this);
+    }
+
+    /**
+     * @return an unmodifiable copy of this object
+     */
+    public DataComponents unmodifiableCopy() {
+        DataComponents copy = new DataComponents(this);
+        copy.modifiable = false;
+        return copy;
+    }
+
+    public boolean isModifiable() {
+        return this.modifiable;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DataComponents that) || this.size != that.size
+                || this.hash != 0 && that.hash != 0 && this.hash != that.hash) {
+            return false;
+        }
+
+        // Both arrays are ordered by type id
+        for (int i = 0; i < this.size; i++) {
+            if (!this.components[i].equals(that.components[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = this.hash;
+        if (hash != 0) {
+            return hash;
+        }
+
+        hash = 1;
+        for (int i = 0; i < this.size; i++) {
+            hash = 31 * hash + this.components[i].hashCode();
+        }
+
+        if (!this.modifiable) {
+            this.hash = hash;
+        }
+
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "DataComponents(dataComponents=" + this.getDataComponents() + ")";
+    }
+
+    private boolean has(int id) {
+        int word = id >> 6;
+        return word < this.mask.length && (this.mask[word] & 1L << id) != 0;
+    }
+
+    /**
+     * @return the amount of components with a lower type id, which is the index of the component with the id
+     */
+    private int rank(int id) {
+        int word = id >> 6;
+        int rank = 0;
+        for (int i = 0; i < word && i < this.mask.length; i++) {
+            rank += Long.bitCount(this.mask[i]);
+        }
+
+        return word < this.mask.length ? rank + Long.bitCount(this.mask[word] & (1L << id) - 1) : rank;
+    }
+
+    private void checkModifiable() {
+        if (!this.modifiable) {
+            throw new UnsupportedOperationException("Shared data components cannot be modified, use clone() first");
+        }
+    }
+
+    private void ensureExclusive() {
+        if (this.shared) {
+            this.mask = this.mask.clone();
+            this.components = this.components.clone();
+            this.shared = false;
+        }
+    }
+
+    private final class View extends AbstractMap<DataComponentType<?>, DataComponent<?, ?>> {
+        @Override
+        public int size() {
+            return DataComponents.this.size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof DataComponentType<?> type && DataComponents.this.contains(type);
+        }
+
+        @Override
+        public DataComponent<?, ?> get(Object key) {
+            return key instanceof DataComponentType<?> type ? DataComponents.this.getComponent(type) : null;
+        }
+
+        @Override
+        public DataComponent<?, ?> put(DataComponentType<?> key, DataComponent<?, ?> value) {
+            if (value.getType() != key) {
+                throw new IllegalArgumentException("Component of type " + value.getType() + " cannot be put as " + key);
+            }
+
+            DataComponent<?, ?> previous = DataComponents.this.getComponent(key);
+            DataComponents.this.put(value);
+            return previous;
+        }
+
+        @Override
+        public DataComponent<?, ?> remove(Object key) {
+            return key instanceof DataComponentType<?> type ? DataComponents.this.remove(type) : null;
+        }
+
+        @Override
+        public void clear() {
+            DataComponents.this.clear();
+        }
+
+        @Override
+        public Set<Entry<DataComponentType<?>, DataComponent<?, ?>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return DataComponents.this.size;
+                }
+
+                @Override
+                public Iterator<Entry<DataComponentType<?>, DataComponent<?, ?>>> iterator() {
+                    return new Iterator<>() {
+                        private int index;
+                        private @Nullable DataComponent<?, ?> last;
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.index < DataComponents.this.size;
+                        }
+
+                        @Override
+                        public Entry<DataComponentType<?>, DataComponent<?, ?>> next() {
+                            if (!this.hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+
+                            this.last = DataComponents.this.components[this.index++];
+                            return new SimpleImmutableEntry<>(this.last.getType(), this.last);
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (this.last == null) {
+                                throw new IllegalStateException();
+                            }
+
+                            DataComponents.this.remove(this.last.getType());
+                            this.last = null;
+                            this.index--;
+                        }
+                    };
+                }
+            };
+        }
     }
 }
@@ -0,0 +1,136 @@
+package org.geysermc.mcprotocollib.protocol.data.game.level;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * The sky or block light levels of a chunk section, packed as one nibble per block.
+ * <p>
+ * Sections that are entirely dark or entirely lit are represented by the shared {@link #empty()} and {@link #full()}
+ * instances, which cannot be modified. Use {@link #copy()} to get a modifiable section.
+ * The arrays of the shared instances are never handed out.
+ */
+public final class LightSection {
+    public static final int SIZE = 2048;
+
+    private static final LightSection EMPTY = new LightSection(new byte[SIZE], false);
+    private static final LightSection FULL = new LightSection(filled((byte) 0xFF), false);
+
+    private final byte[] data;
+    private final boolean modifiable;
+
+    private LightSection(byte[] data, boolean modifiable) {
+        this.data = data;
+        this.modifiable = modifiable;
+    }
+
+    public static LightSection empty() {
+        return EMPTY;
+    }
+
+    public static LightSection full() {
+        return FULL;
+    }
+
+    public static LightSection create() {
+        return new LightSection(new byte[SIZE], true);
+    }
+
+    /**
+     * Wraps an array of light nibbles without copying it.
+     *
+     * @param data the light nibbles, 2048 bytes long
+     * @return the light section backed by the array
+     */
+    public static LightSection of(byte @NonNull [] data) {
+        checkSize(data);
+        return new LightSection(data, true);
+    }
+
+    /**
+     * Copies an array of light nibbles, returning the shared instances for sections that are entirely dark or lit.
+     *
+     * @param data the light nibbles, 2048 bytes long
+     * @return a light section that does not share the array
+     */
+    public static LightSection copyOf(byte @NonNull [] data) {
+        checkSize(data);
+        if (Arrays.equals(data, EMPTY.data)) {
+            return EMPTY;
+        } else if (Arrays.equals(data, FULL.data)) {
+            return FULL;
+        }
+
+        return new LightSection(Arrays.copyOf(data, SIZE), true);
+    }
+
+    public int get(int x, int y, int z) {
+        int index = index(x, y, z);
+        return this.data[index >> 1] >> ((index & 1) << 2) & 0xF;
+    }
+
+    public void set(int x, int y, int z, int level) {
+        if (!this.modifiable) {
+            throw new UnsupportedOperationException("Shared light sections cannot be modified, use copy() first");
+        }
+
+        int index = index(x, y, z);
+        int shift = (index & 1) << 2;
+        this.data[index >> 1] = (byte) (this.data[index >> 1] & ~(0xF << shift) | (level & 0xF) << shift);
+    }
+
+    public boolean isModifiable() {
+        return this.modifiable;
+    }
+
+    /**
+     * Gets the light nibbles backing this section. Shared sections return a copy of their nibbles.
+     *
+     * @return the light nibbles
+     */
+    public byte[] getData() {
+        return this.modifiable ? this.data : Arrays.copyOf(this.data, SIZE);
+    }
+
+    public LightSection copy() {
+        return new LightSection(Arrays.copyOf(this.data, SIZE), true);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof LightSection that && Arrays.equals(this.data, that.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.data);
+    }
+
+    @Override
+    public String toString() {
+        if (this.data == EMPTY.data) {
+            return "LightSection(empty)";
+        } else if (this.data == FULL.data) {
+            return "LightSection(full)";
+        }
+
+        return "LightSection(modifiable=" + this.modifiable + ")";
+    }
+
+    private static void checkSize(byte[] data) {
+        if (data.length != SIZE) {
+            throw new IllegalArgumentException("Light data must be " + SIZE + " bytes long, got " + data.length);
+        }
+    }
+
+    private static int index(int x, int y, int z) {
+        return y << 8 | z << 4 | x;
+    }
+
+    private static byte[] filled(byte value) {
+        byte[] data = new byte[SIZE];
+        Arrays.fill(data, value);
+        return data;
+    }
+}
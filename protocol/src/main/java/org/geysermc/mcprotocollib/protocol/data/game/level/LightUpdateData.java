@@ -10,6 +10,10 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
 
+/**
+ * Light data of a chunk column. Decoded sections that are entirely dark or lit are the shared
+ * {@link LightSection#empty()} and {@link LightSection#full()} instances, which cannot be modified.
+ */
 @Data
 @AllArgsConstructor
 public class LightUpdateData {
@@ -17,55 +21,65 @@ public class LightUpdateData {
     private final @NonNull BitSet blockYMask;
     private final @NonNull BitSet emptySkyYMask;
     private final @NonNull BitSet emptyBlockYMask;
-    private final @NonNull List<byte[]> skyUpdates;
-    private final @NonNull List<byte[]> blockUpdates;
+    private final @NonNull List<LightSection> skyLight;
+    private final @NonNull List<LightSection> blockLight;
+
+    /**
+     * Creates light data backed by the given arrays of light nibbles, without copying them.
+     *
+     * @throws IllegalArgumentException if any array is not {@link LightSection#SIZE} bytes long
+     */
+    public static LightUpdateData ofArrays(@NonNull BitSet skyYMask, @NonNull BitSet blockYMask,
+                                           @NonNull BitSet emptySkyYMask, @NonNull BitSet emptyBlockYMask,
+                                           @NonNull List<byte[]> skyUpdates, @NonNull List<byte[]> blockUpdates) {
+        return new LightUpdateData(skyYMask, blockYMask, emptySkyYMask, emptyBlockYMask, wrap(skyUpdates), wrap(blockUpdates));
+    }
 
     public static LightUpdateData read(ByteBuf in) {
-        return new LightUpdateData(in);
+        return MinecraftTypes.readLightUpdateData(in);
     }
 
-    private LightUpdateData(ByteBuf in) {
-        this.skyYMask = BitSet.valueOf(MinecraftTypes.readLongArray(in));
-        this.blockYMask = BitSet.valueOf(MinecraftTypes.readLongArray(in));
-        this.emptySkyYMask = BitSet.valueOf(MinecraftTypes.readLongArray(in));
-        this.emptyBlockYMask = BitSet.valueOf(MinecraftTypes.readLongArray(in));
+    public LightSection getSkyLight(int index) {
+        return this.skyLight.get(index);
+    }
 
-        int skyUpdateSize = MinecraftTypes.readVarInt(in);
-        skyUpdates = new ArrayList<>(skyUpdateSize);
-        for (int i = 0; i < skyUpdateSize; i++) {
-            skyUpdates.add(MinecraftTypes.readByteArray(in));
-        }
+    public LightSection getBlockLight(int index) {
+        return this.blockLight.get(index);
+    }
 
-        int blockUpdateSize = MinecraftTypes.readVarInt(in);
-        blockUpdates = new ArrayList<>(blockUpdateSize);
-        for (int i = 0; i < blockUpdateSize; i++) {
-            blockUpdates.add(MinecraftTypes.readByteArray(in));
-        }
+    /**
+     * @return the light nibbles of the sky light updates, copied for the shared sections
+     */
+    public List<byte[]> getSkyUpdates() {
+        return unwrap(this.skyLight);
     }
 
-    public static void write(ByteBuf out, LightUpdateData data) {
-        data.write(out);
+    /**
+     * @return the light nibbles of the block light updates, copied for the shared sections
+     */
+    public List<byte[]> getBlockUpdates() {
+        return unwrap(this.blockLight);
     }
 
-    private void write(ByteBuf out) {
-        writeBitSet(out, this.skyYMask);
-        writeBitSet(out, this.blockYMask);
-        writeBitSet(out, this.emptySkyYMask);
-        writeBitSet(out, this.emptyBlockYMask);
+    public static void write(ByteBuf out, LightUpdateData data) {
+        MinecraftTypes.writeLightUpdateData(out, data);
+    }
 
-        MinecraftTypes.writeVarInt(out, this.skyUpdates.size());
-        for (byte[] array : this.skyUpdates) {
-            MinecraftTypes.writeByteArray(out, array);
+    private static List<LightSection> wrap(List<byte[]> updates) {
+        List<LightSection> sections = new ArrayList<>(updates.size());
+        for (byte[] data : updates) {
+            sections.add(LightSection.of(data));
         }
 
-        MinecraftTypes.writeVarInt(out, this.blockUpdates.size());
-        for (byte[] array : this.blockUpdates) {
-            MinecraftTypes.writeByteArray(out, array);
-        }
+        return sections;
     }
 
-    private void writeBitSet(ByteBuf out, BitSet bitSet) {
-        long[] array = bitSet.toLongArray();
-        MinecraftTypes.writeLongArray(out, array);
+    private static List<byte[]> unwrap(List<LightSection> sections) {
+        List<byte[]> updates = new ArrayList<>(sections.size());
+        for (LightSection section : sections) {
+            updates.add(section.getData());
+        }
+
+        return updates;
     }
 }
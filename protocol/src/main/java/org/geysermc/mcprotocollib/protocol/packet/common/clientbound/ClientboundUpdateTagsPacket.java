@@ -54,6 +54,24 @@ public class ClientboundUpdateTagsPacket implements MinecraftPacket {
         }
     }
 
+    @Override
+    public int estimateSize() {
+        int size = MinecraftTypes.varIntSize(this.tags.size());
+        for (Map.Entry<Key, Map<Key, int[]>> tagSet : this.tags.entrySet()) {
+            size += MinecraftTypes.resourceLocationSize(tagSet.getKey());
+            size += MinecraftTypes.varIntSize(tagSet.getValue().size());
+            for (Map.Entry<Key, int[]> tag : tagSet.getValue().entrySet()) {
+                size += MinecraftTypes.resourceLocationSize(tag.getKey());
+                size += MinecraftTypes.varIntSize(tag.getValue().length);
+                for (int id : tag.getValue()) {
+                    size += MinecraftTypes.varIntSize(id);
+                }
+            }
+        }
+
+        return size;
+    }
+
     @Override
     public boolean shouldRunOnGameThread() {
         return true;
@@ -12,6 +12,7 @@ import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
 import org.geysermc.mcprotocollib.protocol.data.game.BossBarAction;
 import org.geysermc.mcprotocollib.protocol.data.game.BossBarColor;
 import org.geysermc.mcprotocollib.protocol.data.game.BossBarDivision;
+import org.geysermc.mcprotocollib.protocol.data.game.chat.LazyComponent;
 
 import java.util.UUID;
 
@@ -22,7 +23,8 @@ public class ClientboundBossEventPacket implements MinecraftPacket {
     private final @NonNull UUID uuid;
     private final @NonNull BossBarAction action;
 
-    private final Component title;
+    @With(AccessLevel.NONE)
+    private final LazyComponent title;
 
     private final float health;
 
@@ -38,7 +40,7 @@ public class ClientboundBossEventPacket implements MinecraftPacket {
     }
 
     public ClientboundBossEventPacket(@NonNull UUID uuid, @NonNull Component title) {
-        this(uuid, BossBarAction.UPDATE_TITLE, title, 0f, null, null, false, false, false);
+        this(uuid, BossBarAction.UPDATE_TITLE, LazyComponent.of(title), 0f, null, null, false, false, false);
     }
 
     public ClientboundBossEventPacket(@NonNull UUID uuid, float health) {
@@ -58,7 +60,7 @@ public class ClientboundBossEventPacket implements MinecraftPacket {
         this.uuid = uuid;
         this.action = BossBarAction.ADD;
 
-        this.title = title;
+        this.title = LazyComponent.of(title);
         this.health = health;
         this.color = color;
         this.division = division;
@@ -72,7 +74,7 @@ public class ClientboundBossEventPacket implements MinecraftPacket {
         this.action = BossBarAction.from(MinecraftTypes.readVarInt(in));
 
         if (this.action == BossBarAction.ADD || this.action == BossBarAction.UPDATE_TITLE) {
-            this.title = MinecraftTypes.readComponent(in);
+            this.title = MinecraftTypes.readLazyComponent(in);
         } else {
             this.title = null;
         }
@@ -103,13 +105,26 @@ public class ClientboundBossEventPacket implements MinecraftPacket {
         }
     }
 
+    public Component getTitle() {
+        return this.title == null ? null : this.title.get();
+    }
+
+    public LazyComponent getLazyTitle() {
+        return this.title;
+    }
+
+    public ClientboundBossEventPacket withTitle(Component title) {
+        return new ClientboundBossEventPacket(this.uuid, this.action, title == null ? null : LazyComponent.of(title), this.health, this.color,
+                this.division, this.darkenSky, this.playEndMusic, this.showFog);
+    }
+
     @Override
     public void serialize(ByteBuf out) {
         MinecraftTypes.writeUUID(out, this.uuid);
         MinecraftTypes.writeVarInt(out, this.action.ordinal());
 
         if (this.action == BossBarAction.ADD || this.action == BossBarAction.UPDATE_TITLE) {
-            MinecraftTypes.writeComponent(out, this.title);
+            MinecraftTypes.writeLazyComponent(out, this.title);
         }
 
         if (this.action == BossBarAction.ADD || this.action == BossBarAction.UPDATE_HEALTH) {
@@ -1,6 +1,7 @@
 package org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound;
 
 import io.netty.buffer.ByteBuf;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.With;
@@ -11,6 +12,7 @@ import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
 import org.geysermc.mcprotocollib.protocol.data.game.Holder;
 import org.geysermc.mcprotocollib.protocol.data.game.chat.ChatFilterType;
 import org.geysermc.mcprotocollib.protocol.data.game.chat.ChatType;
+import org.geysermc.mcprotocollib.protocol.data.game.chat.LazyComponent;
 import org.geysermc.mcprotocollib.protocol.data.game.chat.MessageSignature;
 
 import java.util.ArrayList;
@@ -19,7 +21,7 @@ import java.util.UUID;
 
 @Data
 @With
-@AllArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class ClientboundPlayerChatPacket implements MinecraftPacket {
     private final UUID sender;
     private final int index;
@@ -28,11 +30,32 @@ public class ClientboundPlayerChatPacket implements MinecraftPacket {
     private final long timeStamp;
     private final long salt;
     private final List<MessageSignature> lastSeenMessages;
-    private final @Nullable Component unsignedContent;
+    @With(AccessLevel.NONE)
+    private final @Nullable LazyComponent unsignedContent;
     private final ChatFilterType filterMask;
     private final Holder<ChatType> chatType;
-    private final Component name;
-    private final @Nullable Component targetName;
+    @With(AccessLevel.NONE)
+    private final LazyComponent name;
+    @With(AccessLevel.NONE)
+    private final @Nullable LazyComponent targetName;
+
+    public ClientboundPlayerChatPacket(UUID sender, int index, byte @Nullable [] messageSignature, String content, long timeStamp, long salt,
+                                       List<MessageSignature> lastSeenMessages, @Nullable Component unsignedContent, ChatFilterType filterMask,
+                                       Holder<ChatType> chatType, Component name, @Nullable Component targetName) {
+        this(sender, index, messageSignature, content, timeStamp, salt, lastSeenMessages, lazy(unsignedContent), filterMask,
+                chatType, LazyComponent.of(name), lazy(targetName));
+    }
+
+    /**
+     * Creates a packet from lazy components, e.g. to forward a received message without decoding it.
+     */
+    public static ClientboundPlayerChatPacket ofLazy(UUID sender, int index, byte @Nullable [] messageSignature, String content, long timeStamp,
+                                                     long salt, List<MessageSignature> lastSeenMessages, @Nullable LazyComponent unsignedContent,
+                                                     ChatFilterType filterMask, Holder<ChatType> chatType, LazyComponent name,
+                                                     @Nullable LazyComponent targetName) {
+        return new ClientboundPlayerChatPacket(sender, index, messageSignature, content, timeStamp, salt, lastSeenMessages, unsignedContent,
+                filterMask, chatType, name, targetName);
+    }
 
     public ClientboundPlayerChatPacket(ByteBuf in) {
         this.sender = MinecraftTypes.readUUID(in);
@@ -53,11 +76,50 @@ public class ClientboundPlayerChatPacket implements MinecraftPacket {
             this.lastSeenMessages.add(MessageSignature.read(in));
         }
 
-        this.unsignedContent = MinecraftTypes.readNullable(in, MinecraftTypes::readComponent);
+        this.unsignedContent = MinecraftTypes.readNullable(in, MinecraftTypes::readLazyComponent);
         this.filterMask = ChatFilterType.from(MinecraftTypes.readVarInt(in));
         this.chatType = MinecraftTypes.readHolder(in, MinecraftTypes::readChatType);
-        this.name = MinecraftTypes.readComponent(in);
-        this.targetName = MinecraftTypes.readNullable(in, MinecraftTypes::readComponent);
+        this.name = MinecraftTypes.readLazyComponent(in);
+        this.targetName = MinecraftTypes.readNullable(in, MinecraftTypes::readLazyComponent);
+    }
+
+    public @Nullable Component getUnsignedContent() {
+        return this.unsignedContent == null ? null : this.unsignedContent.get();
+    }
+
+    public Component getName() {
+        return this.name.get();
+    }
+
+    public @Nullable Component getTargetName() {
+        return this.targetName == null ? null : this.targetName.get();
+    }
+
+    public @Nullable LazyComponent getLazyUnsignedContent() {
+        return this.unsignedContent;
+    }
+
+    public LazyComponent getLazyName() {
+        return this.name;
+    }
+
+    public @Nullable LazyComponent getLazyTargetName() {
+        return this.targetName;
+    }
+
+    public ClientboundPlayerChatPacket withUnsignedContent(@Nullable Component unsignedContent) {
+        return new ClientboundPlayerChatPacket(this.sender, this.index, this.messageSignature, this.content, this.timeStamp, this.salt,
+                this.lastSeenMessages, lazy(unsignedContent), this.filterMask, this.chatType, this.name, this.targetName);
+    }
+
+    public ClientboundPlayerChatPacket withName(Component name) {
+        return new ClientboundPlayerChatPacket(this.sender, this.index, this.messageSignature, this.content, this.timeStamp, this.salt,
+                this.lastSeenMessages, this.unsignedContent, this.filterMask, this.chatType, LazyComponent.of(name), this.targetName);
+    }
+
+    public ClientboundPlayerChatPacket withTargetName(@Nullable Component targetName) {
+        return new ClientboundPlayerChatPacket(this.sender, this.index, this.messageSignature, this.content, this.timeStamp, this.salt,
+                this.lastSeenMessages, this.unsignedContent, this.filterMask, this.chatType, this.name, lazy(targetName));
     }
 
     @Override
@@ -78,11 +140,15 @@ public class ClientboundPlayerChatPacket implements MinecraftPacket {
             }
         }
 
-        MinecraftTypes.writeNullable(out, this.unsignedContent, MinecraftTypes::writeComponent);
+        MinecraftTypes.writeNullable(out, this.unsignedContent, MinecraftTypes::writeLazyComponent);
         MinecraftTypes.writeVarInt(out, this.filterMask.ordinal());
         MinecraftTypes.writeHolder(out, this.chatType, MinecraftTypes::writeChatType);
-        MinecraftTypes.writeComponent(out, this.name);
-        MinecraftTypes.writeNullable(out, this.targetName, MinecraftTypes::writeComponent);
+        MinecraftTypes.writeLazyComponent(out, this.name);
+        MinecraftTypes.writeNullable(out, this.targetName, MinecraftTypes::writeLazyComponent);
+    }
+
+    private static @Nullable LazyComponent lazy(@Nullable Component component) {
+        return component == null ? null : LazyComponent.of(component);
     }
 
     @Override
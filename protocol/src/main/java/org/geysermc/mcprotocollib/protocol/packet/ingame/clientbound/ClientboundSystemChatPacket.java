@@ -1,28 +1,55 @@
 package org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound;
 
 import io.netty.buffer.ByteBuf;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NonNull;
 import lombok.With;
 import net.kyori.adventure.text.Component;
 import org.geysermc.mcprotocollib.protocol.codec.MinecraftPacket;
 import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
+import org.geysermc.mcprotocollib.protocol.data.game.chat.LazyComponent;
 
 @Data
 @With
-@AllArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class ClientboundSystemChatPacket implements MinecraftPacket {
-    private final Component content;
+    @With(AccessLevel.NONE)
+    private final @NonNull LazyComponent content;
     private final boolean overlay;
 
+    public ClientboundSystemChatPacket(@NonNull Component content, boolean overlay) {
+        this(LazyComponent.of(content), overlay);
+    }
+
+    /**
+     * Creates a packet from a lazy component, e.g. to forward a received message without decoding it.
+     */
+    public static ClientboundSystemChatPacket ofLazy(@NonNull LazyComponent content, boolean overlay) {
+        return new ClientboundSystemChatPacket(content, overlay);
+    }
+
     public ClientboundSystemChatPacket(ByteBuf in) {
-        this.content = MinecraftTypes.readComponent(in);
+        this.content = MinecraftTypes.readLazyComponent(in);
         this.overlay = in.readBoolean();
     }
 
+    public Component getContent() {
+        return this.content.get();
+    }
+
+    public LazyComponent getLazyContent() {
+        return this.content;
+    }
+
+    public ClientboundSystemChatPacket withContent(@NonNull Component content) {
+        return new ClientboundSystemChatPacket(content, this.overlay);
+    }
+
     @Override
     public void serialize(ByteBuf out) {
-        MinecraftTypes.writeComponent(out, this.content);
+        MinecraftTypes.writeLazyComponent(out, this.content);
         out.writeBoolean(this.overlay);
     }
 
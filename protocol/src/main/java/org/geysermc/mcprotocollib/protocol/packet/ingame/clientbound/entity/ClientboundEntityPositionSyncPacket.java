@@ -42,6 +42,11 @@ public class ClientboundEntityPositionSyncPacket implements MinecraftPacket {
         out.writeBoolean(this.onGround);
     }
 
+    @Override
+    public int estimateSize() {
+        return MinecraftTypes.varIntSize(this.id) + Double.BYTES * 6 + Float.BYTES * 2 + Byte.BYTES;
+    }
+
     @Override
     public boolean shouldRunOnGameThread() {
         return true;
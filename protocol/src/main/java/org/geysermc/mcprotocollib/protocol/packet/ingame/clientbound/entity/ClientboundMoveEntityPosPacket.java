@@ -34,6 +34,11 @@ public class ClientboundMoveEntityPosPacket implements MinecraftPacket {
         out.writeBoolean(this.onGround);
     }
 
+    @Override
+    public int estimateSize() {
+        return MinecraftTypes.varIntSize(this.entityId) + Short.BYTES * 3 + Byte.BYTES;
+    }
+
     @Override
     public boolean shouldRunOnGameThread() {
         return true;
@@ -40,6 +40,11 @@ public class ClientboundMoveEntityPosRotPacket implements MinecraftPacket {
         out.writeBoolean(this.onGround);
     }
 
+    @Override
+    public int estimateSize() {
+        return MinecraftTypes.varIntSize(this.entityId) + Short.BYTES * 3 + Byte.BYTES * 3;
+    }
+
     @Override
     public boolean shouldRunOnGameThread() {
         return true;
@@ -31,6 +31,11 @@ public class ClientboundMoveEntityRotPacket implements MinecraftPacket {
         out.writeBoolean(this.onGround);
     }
 
+    @Override
+    public int estimateSize() {
+        return MinecraftTypes.varIntSize(this.entityId) + Byte.BYTES * 3;
+    }
+
     @Override
     public boolean shouldRunOnGameThread() {
         return true;
@@ -65,6 +65,11 @@ public class ClientboundTeleportEntityPacket implements MinecraftPacket {
         out.writeBoolean(this.onGround);
     }
 
+    @Override
+    public int estimateSize() {
+        return MinecraftTypes.varIntSize(this.id) + Double.BYTES * 6 + Float.BYTES * 2 + Integer.BYTES + Byte.BYTES;
+    }
+
     @Override
     public boolean shouldRunOnGameThread() {
         return true;
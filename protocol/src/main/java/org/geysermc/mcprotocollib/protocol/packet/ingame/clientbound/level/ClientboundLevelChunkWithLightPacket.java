@@ -1,33 +1,76 @@
 package org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.ToString;
 import lombok.With;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.nbt.NbtMap;
 import org.geysermc.mcprotocollib.protocol.codec.MinecraftPacket;
 import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.ChunkColumn;
 import org.geysermc.mcprotocollib.protocol.data.game.level.LightUpdateData;
 import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockEntityInfo;
 import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockEntityType;
 
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The chunk data of this packet is either held as the raw section bytes, as received from the network,
+ * or as a {@link ChunkColumn} that is written straight into the outbound buffer.
+ * <p>
+ * The encoded size of a column, and its encoded form once it was requested, are computed only once,
+ * so a column must not be modified after it was passed to a packet.
+ * <p>
+ * Only the encode side avoids the intermediate array: a received packet always copies the section bytes
+ * out of the inbound buffer, as the dimension height needed to decode them is not known while reading
+ * the packet, and the inbound buffer is released once the packet was read. {@link #readColumn(int)}
+ * then decodes that array without copying it again.
+ */
 @Data
 @With
-@AllArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class ClientboundLevelChunkWithLightPacket implements MinecraftPacket {
     private final int x;
     private final int z;
-    private final byte @NonNull [] chunkData;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @With(AccessLevel.NONE)
+    private final byte @Nullable [] chunkData;
+    @EqualsAndHashCode.Exclude
+    @With(AccessLevel.NONE)
+    private final @Nullable ChunkColumn column;
     private final @NonNull NbtMap heightMaps;
     private final @NonNull BlockEntityInfo @NonNull [] blockEntities;
     private final @NonNull LightUpdateData lightData;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @With(AccessLevel.NONE)
+    private final EncodedColumn encodedColumn = new EncodedColumn();
+
+    public ClientboundLevelChunkWithLightPacket(int x, int z, byte @NonNull [] chunkData, @NonNull NbtMap heightMaps,
+                                                @NonNull BlockEntityInfo @NonNull [] blockEntities, @NonNull LightUpdateData lightData) {
+        this(x, z, chunkData, null, heightMaps, blockEntities, lightData);
+    }
+
+    public ClientboundLevelChunkWithLightPacket(int x, int z, @NonNull ChunkColumn column, @NonNull NbtMap heightMaps,
+                                                @NonNull BlockEntityInfo @NonNull [] blockEntities, @NonNull LightUpdateData lightData) {
+        this(x, z, null, column, heightMaps, blockEntities, lightData);
+    }
 
     public ClientboundLevelChunkWithLightPacket(ByteBuf in) {
         this.x = in.readInt();
         this.z = in.readInt();
         this.heightMaps = MinecraftTypes.readCompoundTagOrThrow(in);
         this.chunkData = MinecraftTypes.readByteArray(in);
+        this.column = null;
 
         this.blockEntities = new BlockEntityInfo[MinecraftTypes.readVarInt(in)];
         for (int i = 0; i < this.blockEntities.length; i++) {
@@ -43,13 +86,80 @@ public class ClientboundLevelChunkWithLightPacket implements MinecraftPacket {
         this.lightData = MinecraftTypes.readLightUpdateData(in);
     }
 
+    /**
+     * Gets the encoded chunk sections. If this packet holds a {@link ChunkColumn}, it is encoded on the first call.
+     *
+     * @return the encoded chunk sections
+     */
+    @EqualsAndHashCode.Include(replaces = "chunkData")
+    @ToString.Include(name = "chunkData")
+    public byte @NonNull [] getChunkData() {
+        if (this.chunkData != null) {
+            return this.chunkData;
+        }
+
+        byte[] chunkData = this.encodedColumn.data;
+        if (chunkData == null) {
+            chunkData = new byte[this.columnSize()];
+            MinecraftTypes.writeChunkColumn(Unpooled.wrappedBuffer(chunkData).writerIndex(0), this.column);
+            this.encodedColumn.data = chunkData;
+        }
+
+        return chunkData;
+    }
+
+    /**
+     * Gets the chunk sections of this packet, decoding them if this packet holds the encoded sections.
+     * The encoded sections are read in place from the array of this packet. A column held by this packet is
+     * returned as a copy, which shares the section data until either is modified.
+     *
+     * @param sectionCount the amount of sections in the dimension, see {@link ChunkColumn#sectionCount(int)}
+     * @return the chunk column
+     */
+    public ChunkColumn readColumn(int sectionCount) {
+        if (this.column != null) {
+            return new ChunkColumn(this.column);
+        }
+
+        return MinecraftTypes.readChunkColumn(Unpooled.wrappedBuffer(this.chunkData), sectionCount);
+    }
+
+    /**
+     * Same as {@link #readColumn(int)}, but decodes the sections in parallel on the given pool.
+     *
+     * @param sectionCount the amount of sections in the dimension, see {@link ChunkColumn#sectionCount(int)}
+     * @param pool the pool the sections are decoded on
+     * @return the chunk column
+     */
+    public ChunkColumn readColumn(int sectionCount, ForkJoinPool pool) {
+        if (this.column != null) {
+            return new ChunkColumn(this.column);
+        }
+
+        return MinecraftTypes.readChunkColumn(Unpooled.wrappedBuffer(this.chunkData), sectionCount, pool);
+    }
+
+    public ClientboundLevelChunkWithLightPacket withChunkData(byte @NonNull [] chunkData) {
+        return new ClientboundLevelChunkWithLightPacket(this.x, this.z, chunkData, null, this.heightMaps, this.blockEntities, this.lightData);
+    }
+
+    public ClientboundLevelChunkWithLightPacket withColumn(@NonNull ChunkColumn column) {
+        return new ClientboundLevelChunkWithLightPacket(this.x, this.z, null, column, this.heightMaps, this.blockEntities, this.lightData);
+    }
+
     @Override
     public void serialize(ByteBuf out) {
         out.writeInt(this.x);
         out.writeInt(this.z);
         MinecraftTypes.writeAnyTag(out, this.heightMaps);
-        MinecraftTypes.writeVarInt(out, this.chunkData.length);
-        out.writeBytes(this.chunkData);
+        byte[] chunkData = this.chunkData != null ? this.chunkData : this.encodedColumn.data;
+        if (chunkData != null) {
+            MinecraftTypes.writeVarInt(out, chunkData.length);
+            out.writeBytes(chunkData);
+        } else {
+            MinecraftTypes.writeVarInt(out, this.columnSize());
+            MinecraftTypes.writeChunkColumn(out, this.column);
+        }
 
         MinecraftTypes.writeVarInt(out, this.blockEntities.length);
         for (BlockEntityInfo blockEntity : this.blockEntities) {
@@ -62,8 +172,44 @@ public class ClientboundLevelChunkWithLightPacket implements MinecraftPacket {
         MinecraftTypes.writeLightUpdateData(out, this.lightData);
     }
 
+    @Override
+    public int estimateSize() {
+        int size = Integer.BYTES * 2;
+        size += MinecraftTypes.anyTagSize(this.heightMaps);
+        if (this.chunkData != null) {
+            size += MinecraftTypes.byteArraySize(this.chunkData);
+        } else {
+            int columnSize = this.columnSize();
+            size += MinecraftTypes.varIntSize(columnSize) + columnSize;
+        }
+
+        size += MinecraftTypes.varIntSize(this.blockEntities.length);
+        for (BlockEntityInfo blockEntity : this.blockEntities) {
+            size += Byte.BYTES + Short.BYTES;
+            size += MinecraftTypes.varIntSize(blockEntity.getType().ordinal());
+            size += MinecraftTypes.anyTagSize(blockEntity.getNbt());
+        }
+
+        return size + MinecraftTypes.lightUpdateDataSize(this.lightData);
+    }
+
     @Override
     public boolean shouldRunOnGameThread() {
         return true;
     }
+
+    private int columnSize() {
+        int size = this.encodedColumn.size;
+        if (size < 0) {
+            size = MinecraftTypes.chunkColumnSize(this.column);
+            this.encodedColumn.size = size;
+        }
+
+        return size;
+    }
+
+    private static final class EncodedColumn {
+        private volatile int size = -1;
+        private volatile byte @Nullable [] data;
+    }
 }
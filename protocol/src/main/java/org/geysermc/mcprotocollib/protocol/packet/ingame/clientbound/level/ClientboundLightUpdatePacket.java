@@ -35,7 +35,7 @@ public class ClientboundLightUpdatePacket implements MinecraftPacket {
         }
         this.x = x;
         this.z = z;
-        this.lightData = new LightUpdateData(skyYMask, blockYMask, emptySkyYMask, emptyBlockYMask, skyUpdates, blockUpdates);
+        this.lightData = LightUpdateData.ofArrays(skyYMask, blockYMask, emptySkyYMask, emptyBlockYMask, skyUpdates, blockUpdates);
     }
 
     public ClientboundLightUpdatePacket(ByteBuf in) {
@@ -51,6 +51,11 @@ public class ClientboundLightUpdatePacket implements MinecraftPacket {
         MinecraftTypes.writeLightUpdateData(out, this.lightData);
     }
 
+    @Override
+    public int estimateSize() {
+        return MinecraftTypes.varIntSize(this.x) + MinecraftTypes.varIntSize(this.z) + MinecraftTypes.lightUpdateDataSize(this.lightData);
+    }
+
     @Override
     public boolean shouldRunOnGameThread() {
         return true;
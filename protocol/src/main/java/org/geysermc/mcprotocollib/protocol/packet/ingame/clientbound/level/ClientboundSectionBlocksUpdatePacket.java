@@ -9,16 +9,35 @@ import org.geysermc.mcprotocollib.protocol.codec.MinecraftPacket;
 import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
 import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockChangeEntry;
 
+/**
+ * The changed blocks are stored as they are sent: {@link #getPositions() positions} holds the position of each change
+ * within the section packed as {@code x << 8 | z << 4 | y}, and {@link #getStates() states} holds the matching block states.
+ * {@link #getEntries()} provides the same changes as {@link BlockChangeEntry}s with global coordinates.
+ */
 @Data
 @With
 public class ClientboundSectionBlocksUpdatePacket implements MinecraftPacket {
     private final int chunkX;
     private final int chunkY;
     private final int chunkZ;
-    /**
-     * The server sends the record position in terms of the local chunk coordinate but it is stored here in terms of global coordinates.
-     */
-    private final @NonNull BlockChangeEntry[] entries;
+    private final short @NonNull [] positions;
+    private final int @NonNull [] states;
+
+    public ClientboundSectionBlocksUpdatePacket(int chunkX, int chunkY, int chunkZ, short @NonNull [] positions, int @NonNull [] states) {
+        if (positions.length == 0) {
+            throw new IllegalArgumentException("Entries must contain at least 1 value.");
+        }
+
+        if (positions.length != states.length) {
+            throw new IllegalArgumentException("Positions and states must have the same length.");
+        }
+
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.chunkZ = chunkZ;
+        this.positions = positions;
+        this.states = states;
+    }
 
     public ClientboundSectionBlocksUpdatePacket(int chunkX, int chunkY, int chunkZ, BlockChangeEntry... entries) {
         if (entries == null || entries.length == 0) {
@@ -28,7 +47,13 @@ public class ClientboundSectionBlocksUpdatePacket implements MinecraftPacket {
         this.chunkX = chunkX;
         this.chunkY = chunkY;
         this.chunkZ = chunkZ;
-        this.entries = entries;
+        this.positions = new short[entries.length];
+        this.states = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            Vector3i position = entries[i].getPosition();
+            this.positions[i] = packPosition(position.getX() & 15, position.getY() & 15, position.getZ() & 15);
+            this.states[i] = entries[i].getBlock();
+        }
     }
 
     public ClientboundSectionBlocksUpdatePacket(ByteBuf in) {
@@ -36,30 +61,91 @@ public class ClientboundSectionBlocksUpdatePacket implements MinecraftPacket {
         this.chunkX = (int) (chunkPosition >> 42);
         this.chunkY = (int) (chunkPosition << 44 >> 44);
         this.chunkZ = (int) (chunkPosition << 22 >> 42);
-        this.entries = new BlockChangeEntry[MinecraftTypes.readVarInt(in)];
-        for (int index = 0; index < this.entries.length; index++) {
+
+        int length = MinecraftTypes.readVarInt(in);
+        this.positions = new short[length];
+        this.states = new int[length];
+        for (int index = 0; index < length; index++) {
             long blockData = MinecraftTypes.readVarLong(in);
-            short position = (short) (blockData & 0xFFFL);
-            int x = (this.chunkX << 4) + (position >>> 8 & 0xF);
-            int y = (this.chunkY << 4) + (position & 0xF);
-            int z = (this.chunkZ << 4) + (position >>> 4 & 0xF);
-            this.entries[index] = new BlockChangeEntry(Vector3i.from(x, y, z), (int) (blockData >>> 12));
+            this.positions[index] = (short) (blockData & 0xFFFL);
+            this.states[index] = (int) (blockData >>> 12);
         }
     }
 
+    public static short packPosition(int x, int y, int z) {
+        return (short) (x << 8 | z << 4 | y);
+    }
+
+    public int size() {
+        return this.positions.length;
+    }
+
+    /**
+     * @return the global x coordinate of the change at the given index
+     */
+    public int getX(int index) {
+        return (this.chunkX << 4) + (this.positions[index] >>> 8 & 0xF);
+    }
+
+    /**
+     * @return the global y coordinate of the change at the given index
+     */
+    public int getY(int index) {
+        return (this.chunkY << 4) + (this.positions[index] & 0xF);
+    }
+
+    /**
+     * @return the global z coordinate of the change at the given index
+     */
+    public int getZ(int index) {
+        return (this.chunkZ << 4) + (this.positions[index] >>> 4 & 0xF);
+    }
+
+    public int getState(int index) {
+        return this.states[index];
+    }
+
+    /**
+     * Creates {@link BlockChangeEntry}s with global coordinates for all changes.
+     * Prefer the indexed accessors when handling many changes, as this allocates two objects per change.
+     *
+     * @return the changes of this packet
+     */
+    public BlockChangeEntry[] getEntries() {
+        BlockChangeEntry[] entries = new BlockChangeEntry[this.positions.length];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new BlockChangeEntry(Vector3i.from(this.getX(i), this.getY(i), this.getZ(i)), this.states[i]);
+        }
+
+        return entries;
+    }
+
+    public ClientboundSectionBlocksUpdatePacket withEntries(BlockChangeEntry @NonNull [] entries) {
+        return new ClientboundSectionBlocksUpdatePacket(this.chunkX, this.chunkY, this.chunkZ, entries);
+    }
+
     @Override
     public void serialize(ByteBuf out) {
         long chunkPosition = 0;
         chunkPosition |= (this.chunkX & 0x3FFFFFL) << 42;
         chunkPosition |= (this.chunkZ & 0x3FFFFFL) << 20;
         out.writeLong(chunkPosition | (this.chunkY & 0xFFFFFL));
-        MinecraftTypes.writeVarInt(out, this.entries.length);
-        for (BlockChangeEntry entry : this.entries) {
-            short position = (short) ((entry.getPosition().getX() - (this.chunkX << 4)) << 8 | (entry.getPosition().getZ() - (this.chunkZ << 4)) << 4 | (entry.getPosition().getY() - (this.chunkY << 4)));
-            MinecraftTypes.writeVarLong(out, (long) entry.getBlock() << 12 | (long) position);
+        MinecraftTypes.writeVarInt(out, this.positions.length);
+        for (int i = 0; i < this.positions.length; i++) {
+            MinecraftTypes.writeVarLong(out, (long) this.states[i] << 12 | this.positions[i] & 0xFFFL);
         }
     }
 
+    @Override
+    public int estimateSize() {
+        int size = Long.BYTES + MinecraftTypes.varIntSize(this.positions.length);
+        for (int i = 0; i < this.positions.length; i++) {
+            size += MinecraftTypes.varLongSize((long) this.states[i] << 12 | this.positions[i] & 0xFFFL);
+        }
+
+        return size;
+    }
+
     @Override
     public boolean shouldRunOnGameThread() {
         return true;
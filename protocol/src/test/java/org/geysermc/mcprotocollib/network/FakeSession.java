@@ -0,0 +1,51 @@
+package org.geysermc.mcprotocollib.network;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.mcprotocollib.network.packet.Packet;
+import org.geysermc.mcprotocollib.network.packet.PacketProtocol;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * Creates sessions for tests that are not connected to anything. Methods of the sessions do nothing and return null or false,
+ * and sessions are only equal to themselves.
+ */
+public final class FakeSession {
+    private FakeSession() {
+    }
+
+    public static Session create() {
+        return create(null, null);
+    }
+
+    /**
+     * @param sent the list the packets sent through the session are added to
+     */
+    public static Session recording(List<Packet> sent) {
+        return create(null, sent);
+    }
+
+    /**
+     * @param protocol the protocol returned by {@link Session#getPacketProtocol()}
+     */
+    public static Session withProtocol(PacketProtocol protocol) {
+        return create(protocol, null);
+    }
+
+    private static Session create(@Nullable PacketProtocol protocol, @Nullable List<Packet> sent) {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "FakeSession@" + Integer.toHexString(System.identityHashCode(proxy));
+            case "getPacketProtocol" -> protocol;
+            default -> {
+                if (sent != null && method.getName().equals("send")) {
+                    sent.add((Packet) args[0]);
+                }
+
+                yield method.getReturnType() == boolean.class ? false : null;
+            }
+        });
+    }
+}
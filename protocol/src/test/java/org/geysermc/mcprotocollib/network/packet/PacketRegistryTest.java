@@ -0,0 +1,77 @@
+package org.geysermc.mcprotocollib.network.packet;
+
+import io.netty.buffer.ByteBuf;
+import org.geysermc.mcprotocollib.network.codec.PacketDefinition;
+import org.geysermc.mcprotocollib.network.codec.PacketSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PacketRegistryTest {
+    @Test
+    public void testLookups() {
+        PacketRegistry registry = new PacketRegistry();
+        registry.registerClientbound(3, FirstPacket.class, serializer(FirstPacket::new));
+        registry.registerClientbound(0, SecondPacket.class, serializer(SecondPacket::new));
+        registry.registerServerbound(100, FirstPacket.class, serializer(FirstPacket::new));
+
+        assertEquals(3, registry.getClientboundId(FirstPacket.class));
+        assertEquals(0, registry.getClientboundId(new SecondPacket()));
+        assertSame(FirstPacket.class, registry.getClientboundClass(3));
+        assertEquals(100, registry.getServerboundId(FirstPacket.class));
+        assertThrows(IllegalArgumentException.class, () -> registry.getClientboundDefinition(1));
+        assertThrows(IllegalArgumentException.class, () -> registry.getClientboundDefinition(-1));
+        assertThrows(IllegalArgumentException.class, () -> registry.getServerboundId(SecondPacket.class));
+    }
+
+    @Test
+    public void testRegisterAfterLookup() {
+        PacketRegistry registry = new PacketRegistry();
+        registry.registerClientbound(0, FirstPacket.class, serializer(FirstPacket::new));
+        assertThrows(IllegalArgumentException.class, () -> registry.getClientboundId(SecondPacket.class));
+
+        registry.registerClientbound(1, SecondPacket.class, serializer(SecondPacket::new));
+        assertEquals(1, registry.getClientboundId(SecondPacket.class));
+
+        // Re-registering a class moves it to the new id
+        registry.registerClientbound(5, FirstPacket.class, serializer(FirstPacket::new));
+        assertEquals(5, registry.getClientboundId(FirstPacket.class));
+
+        registry.clearPackets();
+        assertThrows(IllegalArgumentException.class, () -> registry.getClientboundId(FirstPacket.class));
+        assertThrows(IllegalArgumentException.class, () -> registry.getClientboundDefinition(1));
+    }
+
+    @Test
+    public void testPacketIdBounds() {
+        PacketRegistry registry = new PacketRegistry();
+        assertThrows(IllegalArgumentException.class, () -> registry.registerClientbound(-1, FirstPacket.class, serializer(FirstPacket::new)));
+        assertThrows(IllegalArgumentException.class, () -> registry.registerClientbound(PacketRegistry.MAX_PACKET_ID + 1, FirstPacket.class, serializer(FirstPacket::new)));
+
+        registry.registerClientbound(PacketRegistry.MAX_PACKET_ID, FirstPacket.class, serializer(FirstPacket::new));
+        assertEquals(PacketRegistry.MAX_PACKET_ID, registry.getClientboundId(FirstPacket.class));
+    }
+
+    private static <T extends Packet> PacketSerializer<T> serializer(Supplier<T> factory) {
+        return new PacketSerializer<>() {
+            @Override
+            public void serialize(ByteBuf buf, T packet) {
+            }
+
+            @Override
+            public T deserialize(ByteBuf buf, PacketDefinition<T> definition) {
+                return factory.get();
+            }
+        };
+    }
+
+    private static final class FirstPacket implements Packet {
+    }
+
+    private static final class SecondPacket implements Packet {
+    }
+}
@@ -0,0 +1,88 @@
+package org.geysermc.mcprotocollib.network.packet;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.geysermc.mcprotocollib.network.FakeSession;
+import org.geysermc.mcprotocollib.network.netty.PacketCodec;
+import org.geysermc.mcprotocollib.protocol.MinecraftProtocol;
+import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
+import org.geysermc.mcprotocollib.protocol.data.ProtocolState;
+import org.geysermc.mcprotocollib.protocol.packet.ping.clientbound.ClientboundPongResponsePacket;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RawPacketTest {
+    private static final int PONG_ID = 1;
+
+    @Test
+    public void testReferenceCounting() {
+        RawPacket packet = new RawPacket(5, Unpooled.wrappedBuffer(new byte[]{1, 2, 3}));
+        RawPacket duplicate = packet.retainedDuplicate();
+        assertEquals(5, duplicate.getId());
+        assertEquals(2, packet.refCnt());
+
+        RawPacket replaced = packet.replace(Unpooled.wrappedBuffer(new byte[]{4}));
+        assertEquals(5, replaced.getId());
+        assertEquals(1, replaced.content().readableBytes());
+
+        assertFalse(duplicate.release());
+        assertTrue(packet.release());
+        assertTrue(replaced.release());
+    }
+
+    @Test
+    public void testDecodedInboundPackets() {
+        MinecraftProtocol protocol = new MinecraftProtocol("Test");
+        BitSet decoded = new BitSet();
+        decoded.set(0);
+        protocol.setDecodedInboundPackets(ProtocolState.STATUS, decoded);
+        // The set is copied
+        decoded.set(PONG_ID);
+
+        assertTrue(protocol.shouldDecodeInbound(PONG_ID));
+        protocol.setInboundState(ProtocolState.STATUS);
+        assertTrue(protocol.shouldDecodeInbound(0));
+        assertFalse(protocol.shouldDecodeInbound(PONG_ID));
+
+        protocol.setDecodedInboundPackets(ProtocolState.STATUS, null);
+        assertTrue(protocol.shouldDecodeInbound(PONG_ID));
+    }
+
+    @Test
+    public void testPassThrough() {
+        MinecraftProtocol protocol = new MinecraftProtocol("Test");
+        protocol.setInboundState(ProtocolState.STATUS);
+        protocol.setOutboundState(ProtocolState.STATUS);
+        protocol.setDecodedInboundPackets(ProtocolState.STATUS, new BitSet());
+        EmbeddedChannel channel = new EmbeddedChannel(new PacketCodec(FakeSession.withProtocol(protocol), true));
+
+        ByteBuf frame = Unpooled.buffer();
+        MinecraftTypes.writeVarInt(frame, PONG_ID);
+        frame.writeLong(42);
+        ByteBuf expected = frame.copy();
+
+        assertTrue(channel.writeInbound(frame));
+        RawPacket packet = assertInstanceOf(RawPacket.class, channel.readInbound());
+        assertEquals(PONG_ID, packet.getId());
+        assertEquals(42, packet.content().getLong(packet.content().readerIndex()));
+
+        // Forwarded verbatim, and released by the encoder
+        assertTrue(channel.writeOutbound(packet));
+        ByteBuf written = channel.readOutbound();
+        assertEquals(expected, written);
+        assertEquals(0, packet.refCnt());
+        written.release();
+
+        protocol.setDecodedInboundPackets(ProtocolState.STATUS, null);
+        assertTrue(channel.writeInbound(expected));
+        assertEquals(new ClientboundPongResponsePacket(42), channel.readInbound());
+        assertFalse(channel.finish());
+    }
+}
@@ -0,0 +1,101 @@
+package org.geysermc.mcprotocollib.protocol;
+
+import org.cloudburstmc.math.vector.Vector3i;
+import org.geysermc.mcprotocollib.network.FakeSession;
+import org.geysermc.mcprotocollib.network.packet.Packet;
+import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockChangeEntry;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundBlockUpdatePacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundSectionBlocksUpdatePacket;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BlockUpdateBatcherTest {
+    @Test
+    public void testCoalescing() {
+        List<Packet> sent = new ArrayList<>();
+        BlockUpdateBatcher batcher = new BlockUpdateBatcher(FakeSession.recording(sent));
+
+        batcher.setBlock(1, 2, 3, 10);
+        batcher.setBlock(4, 5, 6, 11);
+        batcher.setBlock(1, 2, 3, 12);
+        batcher.setBlock(Vector3i.from(15, 15, 15), 13);
+        // A different section
+        batcher.setBlock(-1, 16, -1, 14);
+        batcher.setBlock(-2, 17, -1, 15);
+        assertTrue(batcher.hasChanges());
+
+        batcher.flush();
+        assertFalse(batcher.hasChanges());
+        assertEquals(2, sent.size());
+
+        ClientboundSectionBlocksUpdatePacket first = assertInstanceOf(ClientboundSectionBlocksUpdatePacket.class, sent.get(0));
+        assertEquals(0, first.getChunkX());
+        assertEquals(0, first.getChunkY());
+        assertEquals(0, first.getChunkZ());
+        // In the order of the first change of each position, with the last state
+        assertArrayEquals(new short[]{
+                ClientboundSectionBlocksUpdatePacket.packPosition(1, 2, 3),
+                ClientboundSectionBlocksUpdatePacket.packPosition(4, 5, 6),
+                ClientboundSectionBlocksUpdatePacket.packPosition(15, 15, 15)
+        }, first.getPositions());
+        assertArrayEquals(new int[]{12, 11, 13}, first.getStates());
+
+        ClientboundSectionBlocksUpdatePacket second = assertInstanceOf(ClientboundSectionBlocksUpdatePacket.class, sent.get(1));
+        assertEquals(-1, second.getChunkX());
+        assertEquals(1, second.getChunkY());
+        assertEquals(-1, second.getChunkZ());
+        assertEquals(-2, second.getX(1));
+        assertEquals(17, second.getY(1));
+        assertEquals(-1, second.getZ(1));
+        assertEquals(15, second.getState(1));
+
+        // Nothing left to send
+        batcher.flush();
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void testSingleBlock() {
+        List<Packet> sent = new ArrayList<>();
+        BlockUpdateBatcher batcher = new BlockUpdateBatcher(FakeSession.recording(sent));
+
+        batcher.setBlock(-17, -60, 33, 1);
+        batcher.setBlock(-17, -60, 33, 2);
+        batcher.flush();
+        assertEquals(List.of(new ClientboundBlockUpdatePacket(new BlockChangeEntry(Vector3i.from(-17, -60, 33), 2))), sent);
+
+        batcher.setBlock(0, 0, 0, 3);
+        batcher.clear();
+        batcher.flush();
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void testManyChanges() {
+        List<Packet> sent = new ArrayList<>();
+        BlockUpdateBatcher batcher = new BlockUpdateBatcher(FakeSession.recording(sent));
+
+        // Enough changes to switch the section from a linear search to a full index
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 100; i++) {
+                batcher.setBlock(i & 15, i >> 4, 0, round * 100 + i);
+            }
+        }
+        batcher.flush();
+
+        ClientboundSectionBlocksUpdatePacket packet = assertInstanceOf(ClientboundSectionBlocksUpdatePacket.class, sent.get(0));
+        assertEquals(100, packet.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(ClientboundSectionBlocksUpdatePacket.packPosition(i & 15, i >> 4, 0), packet.getPositions()[i]);
+            assertEquals(100 + i, packet.getState(i));
+        }
+    }
+}
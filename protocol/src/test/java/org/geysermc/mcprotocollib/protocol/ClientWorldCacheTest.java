@@ -0,0 +1,175 @@
+package org.geysermc.mcprotocollib.protocol;
+
+import org.cloudburstmc.math.vector.Vector3i;
+import org.cloudburstmc.nbt.NbtMap;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.ChunkColumn;
+import org.geysermc.mcprotocollib.protocol.data.game.level.LightSection;
+import org.geysermc.mcprotocollib.protocol.data.game.level.LightUpdateData;
+import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockChangeEntry;
+import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockEntityInfo;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundBlockUpdatePacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundForgetLevelChunkPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundLevelChunkWithLightPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundLightUpdatePacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundSectionBlocksUpdatePacket;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ClientWorldCacheTest {
+    private static final int MIN_Y = -64;
+    private static final int HEIGHT = 384;
+    private static final LightUpdateData NO_LIGHT = new LightUpdateData(new BitSet(), new BitSet(), new BitSet(), new BitSet(),
+            Collections.emptyList(), Collections.emptyList());
+
+    @Test
+    public void testReplaceColumns() {
+        ClientWorldCache cache = new ClientWorldCache(MIN_Y, HEIGHT);
+        cache.packetReceived(null, chunk(-1, -3, 1));
+        cache.packetReceived(null, chunk(1, -3, 2));
+        cache.packetReceived(null, chunk(-3, -1, 3));
+        assertEquals(3, cache.size());
+
+        // Replacing a column keeps the size
+        cache.packetReceived(null, chunk(1, -3, 7));
+        assertEquals(3, cache.size());
+        assertEquals(7, cache.getBlock(1 << 4, MIN_Y, -3 << 4));
+
+        cache.packetReceived(null, new ClientboundForgetLevelChunkPacket(-1, -3));
+        cache.packetReceived(null, new ClientboundForgetLevelChunkPacket(-1, -3));
+        assertFalse(cache.isLoaded(-1, -3));
+        assertEquals(7, cache.getBlock(1 << 4, MIN_Y, -3 << 4));
+        assertEquals(3, cache.getBlock(-3 << 4, MIN_Y, -1 << 4));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testManyColumns() {
+        ClientWorldCache cache = new ClientWorldCache(MIN_Y, HEIGHT);
+        for (int x = -20; x < 20; x++) {
+            for (int z = -20; z < 20; z++) {
+                cache.packetReceived(null, chunk(x, z, 1));
+            }
+        }
+        assertEquals(1600, cache.size());
+
+        for (int x = -20; x < 20; x += 2) {
+            for (int z = -20; z < 20; z++) {
+                cache.packetReceived(null, new ClientboundForgetLevelChunkPacket(x, z));
+            }
+        }
+        assertEquals(800, cache.size());
+        for (int x = -20; x < 20; x++) {
+            for (int z = -20; z < 20; z++) {
+                assertEquals((x & 1) != 0, cache.isLoaded(x, z));
+            }
+        }
+    }
+
+    @Test
+    public void testBlockUpdates() {
+        ClientWorldCache cache = new ClientWorldCache(MIN_Y, HEIGHT);
+        cache.packetReceived(null, chunk(-1, -1, 1));
+
+        assertEquals(1, cache.getBlock(-16, MIN_Y, -16));
+        assertEquals(0, cache.getBlock(-1, 100, -1));
+        assertEquals(-1, cache.getBlock(-1, MIN_Y - 1, -1));
+        assertEquals(-1, cache.getBlock(-1, MIN_Y + HEIGHT, -1));
+        assertEquals(-1, cache.getBlock(0, 100, 0));
+
+        cache.packetReceived(null, new ClientboundBlockUpdatePacket(new BlockChangeEntry(Vector3i.from(-1, -64, -1), 5)));
+        cache.packetReceived(null, new ClientboundSectionBlocksUpdatePacket(-1, 6, -1,
+                new BlockChangeEntry(Vector3i.from(-2, 100, -3), 6), new BlockChangeEntry(Vector3i.from(-16, 111, -16), 7)));
+        // Outside of the world and in an unloaded chunk
+        cache.packetReceived(null, new ClientboundBlockUpdatePacket(new BlockChangeEntry(Vector3i.from(-1, MIN_Y + HEIGHT, -1), 8)));
+        cache.packetReceived(null, new ClientboundBlockUpdatePacket(new BlockChangeEntry(Vector3i.from(0, 0, 0), 8)));
+
+        assertEquals(5, cache.getBlock(-1, -64, -1));
+        assertEquals(6, cache.getBlock(-2, 100, -3));
+        assertEquals(7, cache.getBlock(-16, 111, -16));
+        assertFalse(cache.isLoaded(0, 0));
+
+        // The returned column is a snapshot
+        ChunkColumn column = cache.getColumn(-1, -1);
+        column.setBlock(15, 0, 15, 9);
+        assertEquals(5, cache.getBlock(-1, -64, -1));
+    }
+
+    @Test
+    public void testLightMasks() {
+        ClientWorldCache cache = new ClientWorldCache(MIN_Y, HEIGHT);
+        LightSection light = LightSection.create();
+        light.set(1, 2, 3, 7);
+        byte[] data = light.copy().getData();
+
+        // Sky light for the section below the world and the lowest section, block light for the section above the world
+        BitSet skyMask = BitSet.valueOf(new long[]{0b11});
+        BitSet blockMask = new BitSet();
+        blockMask.set(ChunkColumn.sectionCount(HEIGHT) + 1);
+        BitSet emptySkyMask = new BitSet();
+        emptySkyMask.set(5);
+        LightUpdateData lightData = new LightUpdateData(skyMask, blockMask, emptySkyMask, new BitSet(),
+                List.of(LightSection.of(data), LightSection.full()), List.of(LightSection.of(data)));
+        cache.packetReceived(null, new ClientboundLevelChunkWithLightPacket(2, -2, new ChunkColumn(ChunkColumn.sectionCount(HEIGHT)),
+                NbtMap.EMPTY, new BlockEntityInfo[0], lightData));
+
+        int minSection = MIN_Y >> 4;
+        assertEquals(light, cache.getSkyLight(2, minSection - 1, -2));
+        assertSame(LightSection.full(), cache.getSkyLight(2, minSection, -2));
+        assertSame(LightSection.empty(), cache.getSkyLight(2, minSection + 4, -2));
+        assertNull(cache.getSkyLight(2, minSection + 1, -2));
+        assertNull(cache.getSkyLight(2, minSection - 2, -2));
+        assertEquals(light, cache.getBlockLight(2, minSection + ChunkColumn.sectionCount(HEIGHT), -2));
+        assertNull(cache.getBlockLight(2, minSection + ChunkColumn.sectionCount(HEIGHT) + 1, -2));
+
+        // The arrays of the packet are copied
+        data[0] = 1;
+        assertEquals(light, cache.getSkyLight(2, minSection - 1, -2));
+
+        cache.packetReceived(null, new ClientboundLightUpdatePacket(2, -2, new BitSet(), new BitSet(), skyMask, new BitSet(),
+                Collections.emptyList(), Collections.emptyList()));
+        assertSame(LightSection.empty(), cache.getSkyLight(2, minSection - 1, -2));
+        assertEquals(light, cache.getBlockLight(2, minSection + ChunkColumn.sectionCount(HEIGHT), -2));
+    }
+
+    @Test
+    public void testDimensionMismatch() {
+        ClientWorldCache cache = new ClientWorldCache(MIN_Y, HEIGHT);
+        cache.packetReceived(null, chunk(0, 0, 1));
+        ClientboundLevelChunkWithLightPacket lowChunk = chunk(0, 0, 2, 256);
+
+        // The encoded column is too short for the dimension of the cache
+        cache.packetReceived(null, lowChunk.withChunkData(lowChunk.getChunkData()));
+        assertFalse(cache.isLoaded(0, 0));
+
+        cache.packetReceived(null, chunk(0, 0, 1));
+        cache.packetReceived(null, lowChunk);
+        assertFalse(cache.isLoaded(0, 0));
+
+        cache.setDimension(0, 256);
+        cache.packetReceived(null, lowChunk.withChunkData(lowChunk.getChunkData()));
+        assertEquals(2, cache.getBlock(0, 0, 0));
+
+        // The encoded column has sections left over for the dimension of the cache
+        ClientboundLevelChunkWithLightPacket highChunk = chunk(0, 0, 1);
+        cache.packetReceived(null, highChunk.withChunkData(highChunk.getChunkData()));
+        assertFalse(cache.isLoaded(0, 0));
+    }
+
+    private static ClientboundLevelChunkWithLightPacket chunk(int x, int z, int state) {
+        return chunk(x, z, state, HEIGHT);
+    }
+
+    private static ClientboundLevelChunkWithLightPacket chunk(int x, int z, int state, int height) {
+        ChunkColumn column = new ChunkColumn(ChunkColumn.sectionCount(height));
+        column.setBlock(0, 0, 0, state);
+        return new ClientboundLevelChunkWithLightPacket(x, z, column, NbtMap.EMPTY, new BlockEntityInfo[0], NO_LIGHT);
+    }
+}
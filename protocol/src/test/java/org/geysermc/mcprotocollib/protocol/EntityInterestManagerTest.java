@@ -0,0 +1,179 @@
+package org.geysermc.mcprotocollib.protocol;
+
+import net.kyori.adventure.text.Component;
+import org.geysermc.mcprotocollib.network.FakeSession;
+import org.geysermc.mcprotocollib.network.Session;
+import org.geysermc.mcprotocollib.network.event.session.DisconnectedEvent;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundSetChunkCacheCenterPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundSetChunkCacheRadiusPacket;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityInterestManagerTest {
+    @Test
+    public void testEnterAndLeave() {
+        RecordingListener listener = new RecordingListener();
+        EntityInterestManager manager = new EntityInterestManager(listener);
+        Session session = FakeSession.create();
+
+        manager.addEntity(1, 2, -2);
+        manager.addViewer(session, 0, 0, 2);
+        manager.addEntity(2, 3, 0);
+        assertEquals(Set.of(1), listener.observed(session));
+
+        manager.moveEntity(2, 2, 0);
+        manager.moveEntity(1, 5, 5);
+        assertEquals(Set.of(2), listener.observed(session));
+        assertTrue(manager.isObserving(session, 2));
+        assertEquals(List.of(session), manager.getObservers(2));
+
+        // Moves within a chunk and of a viewer to the same view change nothing
+        int events = listener.events;
+        manager.moveEntity(2, 2, 0);
+        manager.addViewer(session, 0, 0, 2);
+        assertEquals(events, listener.events);
+
+        manager.addEntity(1, 1, 1);
+        manager.removeEntity(2);
+        assertEquals(Set.of(1), listener.observed(session));
+
+        manager.removeViewer(session);
+        assertEquals(Set.of(), listener.observed(session));
+        assertEquals(List.of(), manager.getObservers(1));
+    }
+
+    @Test
+    public void testViewChanges() {
+        RecordingListener listener = new RecordingListener();
+        EntityInterestManager manager = new EntityInterestManager(listener);
+        Session session = FakeSession.create();
+        manager.addEntity(1, 3, 0);
+        manager.addEntity(2, -3, -3);
+        manager.addViewer(session, 0, 0, 1);
+        assertEquals(Set.of(), listener.observed(session));
+
+        manager.setViewDistance(session, 3);
+        assertEquals(Set.of(1, 2), listener.observed(session));
+        manager.setViewDistance(session, 1);
+        assertEquals(Set.of(), listener.observed(session));
+
+        manager.moveViewer(session, 3, 1);
+        assertEquals(Set.of(1), listener.observed(session));
+
+        // Sent packets update the view of the session
+        manager.packetSent(session, new ClientboundSetChunkCacheCenterPacket(-2, -2));
+        assertEquals(Set.of(2), listener.observed(session));
+        manager.packetSent(session, new ClientboundSetChunkCacheRadiusPacket(5));
+        assertEquals(Set.of(1, 2), listener.observed(session));
+        manager.packetSent(FakeSession.create(), new ClientboundSetChunkCacheRadiusPacket(0));
+        assertEquals(Set.of(1, 2), listener.observed(session));
+    }
+
+    @Test
+    public void testOverlappingViewers() {
+        RecordingListener listener = new RecordingListener();
+        EntityInterestManager manager = new EntityInterestManager(listener);
+        Session first = FakeSession.create();
+        Session second = FakeSession.create();
+        manager.addViewer(first, 0, 0, 2);
+        manager.addViewer(second, 3, 0, 2);
+
+        manager.addEntity(1, 1, 0);
+        manager.addEntity(2, 4, 0);
+        manager.addEntity(3, -1, 2);
+        assertEquals(Set.of(1, 3), listener.observed(first));
+        assertEquals(Set.of(1, 2), listener.observed(second));
+        assertEquals(Set.of(first, second), new HashSet<>(manager.getObservers(1)));
+
+        // Entities within both the old and new view stay observed
+        int events = listener.events;
+        manager.moveViewer(first, 1, 0);
+        assertEquals(events, listener.events);
+        manager.moveViewer(first, 2, 0);
+        assertEquals(Set.of(1, 2), listener.observed(first));
+        assertEquals(Set.of(1, 2), listener.observed(second));
+
+        manager.moveEntity(2, 5, 0);
+        assertEquals(Set.of(1), listener.observed(first));
+        assertEquals(Set.of(1, 2), listener.observed(second));
+    }
+
+    @Test
+    public void testCellCleanup() {
+        EntityInterestManager manager = new EntityInterestManager(new RecordingListener());
+        Session session = FakeSession.create();
+        manager.addViewer(session, 0, 0, 10);
+        assertEquals(0, manager.cellCount());
+
+        manager.addEntity(1, 0, 0);
+        manager.addEntity(2, 0, 0);
+        manager.addEntity(3, 30, 30);
+        assertEquals(2, manager.cellCount());
+
+        manager.moveEntity(1, 1, 0);
+        manager.moveEntity(3, 0, 0);
+        assertEquals(2, manager.cellCount());
+        assertTrue(manager.isObserving(session, 3));
+
+        manager.moveViewer(session, 100, 100);
+        manager.removeViewer(session);
+        assertEquals(2, manager.cellCount());
+
+        manager.removeEntity(1);
+        manager.removeEntity(2);
+        manager.removeEntity(3);
+        assertEquals(0, manager.cellCount());
+    }
+
+    @Test
+    public void testDisconnect() {
+        RecordingListener listener = new RecordingListener();
+        EntityInterestManager manager = new EntityInterestManager(listener);
+        Session session = FakeSession.create();
+        manager.addViewer(session, 0, 0, 2);
+        manager.addEntity(1, 0, 0);
+
+        int events = listener.events;
+        manager.disconnected(new DisconnectedEvent(session, Component.text("Disconnected"), null));
+        assertEquals(events, listener.events);
+        assertFalse(manager.isObserving(session, 1));
+        assertEquals(List.of(), manager.getObservers(1));
+
+        // Nothing is sent to the removed viewer afterwards
+        manager.removeEntity(1);
+        assertEquals(events, listener.events);
+    }
+
+    /**
+     * Fails on notifications that do not match the state of the session.
+     */
+    private static final class RecordingListener implements EntityInterestManager.Listener {
+        private final Map<Session, Set<Integer>> observed = new HashMap<>();
+        private int events;
+
+        @Override
+        public void startObserving(Session session, int entityId) {
+            assertTrue(this.observed(session).add(entityId), "Started observing twice");
+            this.events++;
+        }
+
+        @Override
+        public void stopObserving(Session session, int entityId) {
+            assertTrue(this.observed(session).remove(entityId), "Stopped observing without starting");
+            this.events++;
+        }
+
+        private Set<Integer> observed(Session session) {
+            return this.observed.computeIfAbsent(session, key -> new HashSet<>());
+        }
+    }
+}
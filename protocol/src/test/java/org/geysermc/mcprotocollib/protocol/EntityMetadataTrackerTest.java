@@ -0,0 +1,95 @@
+package org.geysermc.mcprotocollib.protocol;
+
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.EntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.MetadataType;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.Pose;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.BooleanEntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.ByteEntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.FloatEntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.IntEntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.ObjectEntityMetadata;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityMetadataTrackerTest {
+    @Test
+    public void testUnchangedValues() {
+        EntityMetadataTracker tracker = new EntityMetadataTracker();
+        tracker.setByte(1, 0, MetadataType.BYTE, (byte) 0x20);
+        tracker.set(1, 6, MetadataType.POSE, Pose.SNEAKING);
+        tracker.pollChanges(1);
+
+        tracker.setByte(1, 0, MetadataType.BYTE, (byte) 0x20);
+        tracker.set(1, 6, MetadataType.POSE, Pose.SNEAKING);
+        tracker.set(1, new ByteEntityMetadata(0, MetadataType.BYTE, (byte) 0x20));
+        assertFalse(tracker.isDirty(1));
+        assertEquals(0, tracker.pollChanges(1).length);
+        assertNull(tracker.pollPacket(1));
+
+        // The same value with a different type is a change
+        tracker.setInt(1, 0, MetadataType.INT, 0x20);
+        assertTrue(tracker.isDirty(1));
+        assertFalse(tracker.isDirty(2));
+    }
+
+    @Test
+    public void testPollChanges() {
+        EntityMetadataTracker tracker = new EntityMetadataTracker();
+        tracker.setFloat(1, 200, MetadataType.FLOAT, 1.5f);
+        tracker.setInt(1, 64, MetadataType.INT, 3);
+        tracker.setBoolean(1, 4, MetadataType.BOOLEAN, true);
+        tracker.setInt(1, 64, MetadataType.INT, 4);
+        tracker.set(1, 63, MetadataType.POSE, Pose.SWIMMING);
+
+        assertArrayEquals(new EntityMetadata<?, ?>[]{
+                new BooleanEntityMetadata(4, MetadataType.BOOLEAN, true),
+                new ObjectEntityMetadata<>(63, MetadataType.POSE, Pose.SWIMMING),
+                new IntEntityMetadata(64, MetadataType.INT, 4),
+                new FloatEntityMetadata(200, MetadataType.FLOAT, 1.5f)
+        }, tracker.pollChanges(1));
+        assertFalse(tracker.isDirty(1));
+        assertEquals(0, tracker.pollChanges(1).length);
+
+        tracker.setInt(1, 64, MetadataType.INT, 5);
+        assertArrayEquals(new EntityMetadata<?, ?>[]{new IntEntityMetadata(64, MetadataType.INT, 5)}, tracker.pollPacket(1).getMetadata());
+
+        // Values changed back to what was last sent are not sent again
+        tracker.setInt(1, 64, MetadataType.INT, 6);
+        tracker.setFloat(1, 200, MetadataType.FLOAT, 2.5f);
+        tracker.setInt(1, 64, MetadataType.INT, 5);
+        assertArrayEquals(new EntityMetadata<?, ?>[]{new FloatEntityMetadata(200, MetadataType.FLOAT, 2.5f)}, tracker.pollChanges(1));
+        tracker.setBoolean(1, 4, MetadataType.BOOLEAN, false);
+        tracker.setBoolean(1, 4, MetadataType.BOOLEAN, true);
+        assertTrue(tracker.isDirty(1));
+        assertNull(tracker.pollPacket(1));
+    }
+
+    @Test
+    public void testSnapshot() {
+        EntityMetadataTracker tracker = new EntityMetadataTracker();
+        tracker.setInt(1, 1, MetadataType.INT, 300);
+        tracker.pollChanges(1);
+        tracker.setBoolean(1, 4, MetadataType.BOOLEAN, true);
+
+        EntityMetadata<?, ?>[] all = {
+                new IntEntityMetadata(1, MetadataType.INT, 300),
+                new BooleanEntityMetadata(4, MetadataType.BOOLEAN, true)
+        };
+        assertArrayEquals(all, tracker.snapshot(1));
+        assertArrayEquals(all, tracker.snapshotPacket(1).getMetadata());
+        assertEquals(0, tracker.snapshot(2).length);
+
+        // Taking a snapshot keeps the changes for the current viewers
+        assertTrue(tracker.isDirty(1));
+        assertArrayEquals(new EntityMetadata<?, ?>[]{all[1]}, tracker.pollChanges(1));
+
+        tracker.remove(1);
+        assertFalse(tracker.isTracked(1));
+        assertNull(tracker.getMetadata(1));
+    }
+}
@@ -0,0 +1,102 @@
+package org.geysermc.mcprotocollib.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.math.vector.Vector3d;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundEntityPositionSyncPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundMoveEntityPosPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundMoveEntityPosRotPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundMoveEntityRotPacket;
+import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity.ClientboundTeleportEntityPacket;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityMovementEncoderTest {
+    @Test
+    public void testPacketSelection() {
+        EntityMovementEncoder encoder = new EntityMovementEncoder();
+        assertEquals(new ClientboundEntityPositionSyncPacket(1, Vector3d.from(0.5, 64, 0.5), Vector3d.ZERO, 90, 0, true),
+                encoder.move(1, 0.5, 64, 0.5, 90, 0, true));
+        assertTrue(encoder.isTracked(1));
+
+        assertNull(encoder.move(1, 0.5, 64, 0.5, 90, 0, true));
+        // Less than the precision of the move packets
+        assertNull(encoder.move(1, 0.5 + 1 / 16384D, 64, 0.5, 90.5f, 0, true));
+
+        assertEquals(new ClientboundMoveEntityPosPacket(1, 0.25, -1, 0, false), encoder.move(1, 0.75, 63, 0.5, 90, 0, false));
+        assertEquals(new ClientboundMoveEntityRotPacket(1, -45, 45, false), encoder.move(1, 0.75, 63, 0.5, -45, 45, false));
+        assertEquals(new ClientboundMoveEntityPosRotPacket(1, 0, 0, 1.5, 0, 0, false), encoder.move(1, 0.75, 63, 2, 0, 0, false));
+        assertEquals(new ClientboundMoveEntityRotPacket(1, 0, 0, true), encoder.move(1, 0.75, 63, 2, 0, 0, true));
+
+        encoder.track(2, 10, 64, 10, 0, 0, true);
+        assertEquals(new ClientboundMoveEntityPosPacket(2, -1, 0, 0, true), encoder.move(2, 9, 64, 10, 0, 0, true));
+
+        assertEquals(new ClientboundTeleportEntityPacket(2, Vector3d.from(100, 64, 10), Vector3d.ZERO, 0, 0, Collections.emptyList(), true),
+                encoder.teleport(2, 100, 64, 10, 0, 0, true));
+        assertEquals(new ClientboundMoveEntityPosPacket(2, 1, 0, 0, true), encoder.move(2, 101, 64, 10, 0, 0, true));
+
+        encoder.remove(2);
+        assertInstanceOf(ClientboundEntityPositionSyncPacket.class, encoder.move(2, 101, 64, 10, 0, 0, true));
+    }
+
+    @Test
+    public void testShortOverflow() {
+        EntityMovementEncoder encoder = new EntityMovementEncoder();
+        encoder.track(1, 0, 64, 0, 0, 0, true);
+
+        // 8 blocks is one step too far for a relative move in the positive direction, but not in the negative one
+        assertEquals(new ClientboundEntityPositionSyncPacket(1, Vector3d.from(8, 64, 0), Vector3d.ZERO, 0, 0, true),
+                encoder.move(1, 8, 64, 0, 0, 0, true));
+        assertEquals(new ClientboundMoveEntityPosPacket(1, -8, 0, 0, true), encoder.move(1, 0, 64, 0, 0, 0, true));
+        assertEquals(new ClientboundMoveEntityPosPacket(1, 0, 0, 32767 / 4096D, true), encoder.move(1, 0, 64, 32767 / 4096D, 0, 0, true));
+        assertInstanceOf(ClientboundEntityPositionSyncPacket.class, encoder.move(1, 0, -100, 32767 / 4096D, 0, 0, true));
+    }
+
+    @Test
+    public void testSyncInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new EntityMovementEncoder(0));
+        EntityMovementEncoder encoder = new EntityMovementEncoder(3);
+        encoder.track(1, 0, 64, 0, 0, 0, true);
+
+        for (int round = 0; round < 2; round++) {
+            double x = round * 3;
+            assertInstanceOf(ClientboundMoveEntityPosPacket.class, encoder.move(1, x + 1, 64, 0, 0, 0, true));
+            // Unchanged positions do not count as moves
+            assertNull(encoder.move(1, x + 1, 64, 0, 0, 0, true));
+            assertInstanceOf(ClientboundMoveEntityPosPacket.class, encoder.move(1, x + 2, 64, 0, 0, 0, true));
+            assertInstanceOf(ClientboundEntityPositionSyncPacket.class, encoder.move(1, x + 3, 64, 0, 0, 0, true));
+        }
+    }
+
+    @Test
+    public void testQuantization() {
+        EntityMovementEncoder encoder = new EntityMovementEncoder(Integer.MAX_VALUE);
+        encoder.track(1, 0.3, 64, 0, 0, 0, true);
+
+        // Relative moves add up to the quantized position without drifting
+        long x = Math.round(0.3 * 4096);
+        for (int i = 1; i <= 100; i++) {
+            float yaw = i * 7.3f - 360;
+            float pitch = -i * 1.7f;
+            ClientboundMoveEntityPosRotPacket packet = assertInstanceOf(ClientboundMoveEntityPosRotPacket.class,
+                    encoder.move(1, 0.3 + i * 0.1, 64, 0, yaw, pitch, true));
+
+            ByteBuf buf = Unpooled.buffer();
+            packet.serialize(buf);
+            ClientboundMoveEntityPosRotPacket decoded = new ClientboundMoveEntityPosRotPacket(buf);
+            assertEquals(packet, decoded);
+
+            x += (long) (decoded.getMoveX() * 4096);
+            assertEquals(Math.round((0.3 + i * 0.1) * 4096), x);
+            assertEquals((byte) Math.floor(yaw * 256 / 360), (byte) (decoded.getYaw() * 256 / 360));
+            assertEquals((byte) Math.floor(pitch * 256 / 360), (byte) (decoded.getPitch() * 256 / 360));
+        }
+    }
+}
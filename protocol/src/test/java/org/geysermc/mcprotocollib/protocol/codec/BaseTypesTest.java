@@ -1,9 +1,15 @@
 package org.geysermc.mcprotocollib.protocol.codec;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import net.kyori.adventure.text.Component;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class BaseTypesTest {
     @Test
@@ -44,4 +50,71 @@ public class BaseTypesTest {
             assertEquals("VarLong wider than 10 bytes", ex.getMessage());
         }
     }
+
+    @Test
+    public void varIntSize() {
+        for (int value : new int[]{0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE}) {
+            ByteBuf buf = Unpooled.buffer();
+            MinecraftTypes.writeVarInt(buf, value);
+            assertEquals(buf.readableBytes(), MinecraftTypes.varIntSize(value), "VarInt size of " + value);
+        }
+    }
+
+    @Test
+    public void varLongSize() {
+        for (long value : new long[]{0, 1, 127, 128, Integer.MAX_VALUE, Long.MAX_VALUE, -1, Long.MIN_VALUE}) {
+            ByteBuf buf = Unpooled.buffer();
+            MinecraftTypes.writeVarLong(buf, value);
+            assertEquals(buf.readableBytes(), MinecraftTypes.varLongSize(value), "VarLong size of " + value);
+        }
+    }
+
+    @Test
+    public void componentCache() {
+        assertFalse(ComponentCache.get().isEnabled());
+
+        ComponentCache cache = new ComponentCache(16);
+        Component hello = Component.text("Hello");
+        byte[] encoded = new byte[]{1, 2, 3};
+        assertNull(cache.lookup(hello));
+        cache.put(hello, encoded);
+        assertSame(encoded, cache.lookup(hello));
+        // Equal components hit the same entry
+        assertSame(encoded, cache.lookup(Component.text("Hello")));
+        assertNull(cache.lookup(Component.text("World")));
+
+        // A single slot, so every component evicts the previous one
+        ComponentCache single = new ComponentCache(1);
+        single.put(hello, encoded);
+        single.put(Component.text("World"), new byte[]{4});
+        assertNull(single.lookup(hello));
+
+        cache.clear();
+        assertNull(cache.lookup(hello));
+    }
+
+    @Test
+    public void writeCachedComponent() {
+        Component component = Component.text("Hello").append(Component.text(" world"));
+        ByteBuf uncached = Unpooled.buffer();
+        MinecraftTypes.writeComponent(uncached, component);
+
+        ComponentCache cache = new ComponentCache(16);
+        ComponentCache.set(cache);
+        try {
+            ByteBuf first = Unpooled.buffer();
+            MinecraftTypes.writeComponent(first, component);
+            byte[] encoded = cache.lookup(component);
+            ByteBuf second = Unpooled.buffer();
+            MinecraftTypes.writeComponent(second, component);
+
+            assertEquals(uncached, first);
+            assertEquals(uncached, second);
+            assertArrayEquals(encoded, cache.lookup(component));
+        } finally {
+            ComponentCache.set(null);
+        }
+
+        assertFalse(ComponentCache.get().isEnabled());
+    }
 }
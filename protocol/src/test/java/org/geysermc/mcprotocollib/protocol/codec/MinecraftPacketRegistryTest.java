@@ -0,0 +1,53 @@
+package org.geysermc.mcprotocollib.protocol.codec;
+
+import io.netty.buffer.ByteBuf;
+import org.geysermc.mcprotocollib.network.codec.PacketDefinition;
+import org.geysermc.mcprotocollib.network.codec.PacketSerializer;
+import org.geysermc.mcprotocollib.network.packet.PacketRegistry;
+import org.geysermc.mcprotocollib.protocol.packet.ping.clientbound.ClientboundPongResponsePacket;
+import org.geysermc.mcprotocollib.protocol.packet.ping.serverbound.ServerboundPingRequestPacket;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MinecraftPacketRegistryTest {
+    @Test
+    public void testCustomSerializers() {
+        PacketSerializer<ClientboundPongResponsePacket> clientbound = new FixedSizeSerializer<>(ClientboundPongResponsePacket::new);
+        PacketSerializer<ServerboundPingRequestPacket> serverbound = new FixedSizeSerializer<>(ServerboundPingRequestPacket::new);
+        PacketRegistry registry = MinecraftPacketRegistry.builder()
+                .registerClientboundPacket(ClientboundPongResponsePacket.class, ClientboundPongResponsePacket::new)
+                .registerClientboundPacket(ClientboundPongResponsePacket.class, clientbound)
+                .registerServerboundPacket(ServerboundPingRequestPacket.class, serverbound)
+                .build();
+
+        assertEquals(1, registry.getClientboundId(ClientboundPongResponsePacket.class));
+        assertSame(clientbound, registry.getClientboundDefinition(1).getSerializer());
+        assertSame(serverbound, registry.getServerboundDefinition(0).getSerializer());
+
+        ClientboundPongResponsePacket packet = new ClientboundPongResponsePacket(42);
+        PacketSerializer<ClientboundPongResponsePacket> serializer = (PacketSerializer<ClientboundPongResponsePacket>) registry.getClientboundDefinition(0).getSerializer();
+        assertEquals(packet.estimateSize(), serializer.estimateSize(packet));
+        assertEquals(FixedSizeSerializer.SIZE, clientbound.estimateSize(packet));
+    }
+
+    private record FixedSizeSerializer<T extends MinecraftPacket>(PacketFactory<T> factory) implements PacketSerializer<T> {
+        private static final int SIZE = 16;
+
+        @Override
+        public void serialize(ByteBuf buf, T packet) {
+            buf.writeZero(SIZE);
+        }
+
+        @Override
+        public T deserialize(ByteBuf buf, PacketDefinition<T> definition) {
+            return this.factory.construct(buf);
+        }
+
+        @Override
+        public int estimateSize(T packet) {
+            return SIZE;
+        }
+    }
+}
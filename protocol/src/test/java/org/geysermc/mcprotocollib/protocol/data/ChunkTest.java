@@ -1,10 +1,18 @@
 package org.geysermc.mcprotocollib.protocol.data;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.BitStorage;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.ChunkColumn;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.ChunkSection;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.DataPalette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.OffHeapChunkSection;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.ListPalette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.MapPalette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.Palette;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.PaletteType;
 import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.SingletonPalette;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,10 +21,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ChunkTest {
     private static final Logger log = LoggerFactory.getLogger(ChunkTest.class);
@@ -64,4 +80,269 @@ public class ChunkTest {
             assertNotEquals(section, copy, "Deep copy is not deep: " + section + " vs " + copy);
         }
     }
+
+    @Test
+    public void testCopyOnWrite() {
+        ChunkSection original = new ChunkSection();
+        original.setBlock(0, 0, 0, 10);
+        ChunkSection first = new ChunkSection(original);
+        ChunkSection second = new ChunkSection(original);
+        assertSame(original.getChunkData().getStorage(), first.getChunkData().getStorage());
+
+        original.setBlock(0, 0, 0, 11);
+        first.setBlock(0, 0, 0, 12);
+        assertEquals(11, original.getBlock(0, 0, 0));
+        assertEquals(12, first.getBlock(0, 0, 0));
+        assertEquals(10, second.getBlock(0, 0, 0));
+    }
+
+    @Test
+    public void testBitStorageBulkOperations() {
+        int[] values = new int[4096];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 31) % 16;
+        }
+
+        for (int bitsPerEntry : new int[]{4, 8, 15}) {
+            BitStorage storage = new BitStorage(bitsPerEntry, values.length);
+            storage.setAll(values);
+            assertArrayEquals(values, storage.toIntArray(), "Round trip failed for " + bitsPerEntry + " bits per entry");
+        }
+
+        BitStorage storage = new BitStorage(5, values.length);
+        storage.setAll(values);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], storage.get(i), "Value mismatch at index " + i);
+        }
+
+        PrimitiveIterator.OfInt iterator = storage.iterator();
+        for (int value : values) {
+            assertEquals(value, iterator.nextInt());
+        }
+
+        BitStorage wider = new BitStorage(7, values.length);
+        storage.copyTo(wider);
+        assertArrayEquals(values, wider.toIntArray());
+
+        BitStorage filled = new BitStorage(5, values.length);
+        filled.fill(17);
+        BitStorage expected = new BitStorage(5, values.length);
+        for (int i = 0; i < values.length; i++) {
+            expected.set(i, 17);
+        }
+        assertEquals(expected, filled);
+    }
+
+    @Test
+    public void testPaletteQueries() {
+        ChunkSection section = new ChunkSection();
+        assertTrue(section.contains(0));
+        assertEquals(4096, section.count(0));
+
+        section.setBlock(1, 0, 0, 10);
+        section.setBlock(2, 3, 4, 10);
+        section.setBlock(5, 5, 5, 11);
+
+        assertTrue(section.contains(10));
+        assertFalse(section.contains(12));
+        assertEquals(2, section.count(10));
+        assertEquals(0, section.count(12));
+        assertArrayEquals(new int[]{1, 3 << 8 | 4 << 4 | 2}, section.indicesOf(10));
+
+        Int2IntMap histogram = section.histogram();
+        assertEquals(3, histogram.size());
+        assertEquals(4093, histogram.get(0));
+        assertEquals(2, histogram.get(10));
+        assertEquals(1, histogram.get(11));
+    }
+
+    @Test
+    public void testMapPaletteQueries() {
+        ChunkSection section = new ChunkSection();
+        for (int i = 0; i < 40; i++) {
+            section.setBlock(i & 15, i >> 4, 0, i + 100);
+        }
+
+        assertTrue(section.getChunkData().getPalette() instanceof MapPalette);
+        assertTrue(section.contains(139));
+        assertFalse(section.contains(140));
+        assertEquals(1, section.count(120));
+        assertArrayEquals(new int[]{1 << 8 | 4}, section.indicesOf(120));
+    }
+
+    @Test
+    public void testDuplicateStatePaletteQueries() {
+        for (int bitsPerEntry : new int[]{4, 5}) {
+            // Palettes received from the network may map several ids to the same state
+            int[] states = {5, 6, 5, 7};
+            Palette palette = bitsPerEntry == 4 ? new ListPalette(bitsPerEntry, states) : new MapPalette(bitsPerEntry, states);
+            BitStorage storage = new BitStorage(bitsPerEntry, PaletteType.CHUNK.getStorageSize());
+            storage.set(1, 1);
+            storage.set(2, 2);
+            storage.set(3, 1);
+            storage.set(4, 3);
+            DataPalette data = new DataPalette(palette, storage, PaletteType.CHUNK);
+
+            assertTrue(data.contains(6));
+            assertEquals(4093, data.count(5));
+            int[] indices = data.indicesOf(5);
+            assertEquals(4093, indices.length);
+            assertArrayEquals(new int[]{0, 2, 5}, Arrays.copyOf(indices, 3));
+            assertArrayEquals(new int[]{1, 3}, data.indicesOf(6));
+
+            // Only the duplicate id is used
+            storage.fill(2);
+            assertTrue(data.contains(5));
+            assertEquals(4096, data.count(5));
+            assertFalse(data.contains(6));
+        }
+    }
+
+    @Test
+    public void testOptimize() {
+        ChunkSection section = new ChunkSection();
+        for (int i = 0; i < 20; i++) {
+            section.setBlock(i & 15, i >> 4, 0, i + 1);
+        }
+        for (int i = 0; i < 20; i++) {
+            section.setBlock(i & 15, i >> 4, 0, 7);
+        }
+
+        DataPalette palette = section.getChunkData();
+        palette.optimize();
+        assertTrue(palette.getPalette() instanceof ListPalette);
+        assertEquals(7, palette.get(0, 0, 0));
+        assertEquals(0, palette.get(5, 5, 5));
+
+        for (int i = 0; i < 20; i++) {
+            section.setBlock(i & 15, i >> 4, 0, 0);
+        }
+        palette.optimize();
+        assertTrue(palette.getPalette() instanceof SingletonPalette);
+        assertEquals(0, palette.get(0, 0, 0));
+    }
+
+    @Test
+    public void testOptimizeOnWrite() {
+        ChunkSection section = new ChunkSection();
+        for (int i = 0; i < 20; i++) {
+            section.setBlock(i & 15, i >> 4, 0, i + 1);
+        }
+        for (int i = 0; i < 20; i++) {
+            section.setBlock(i & 15, i >> 4, 0, 7);
+        }
+
+        DataPalette palette = section.getChunkData();
+        BitStorage storage = palette.getStorage();
+        ByteBuf buf = Unpooled.buffer();
+        MinecraftTypes.setOptimizePalettesOnWrite(true);
+        try {
+            MinecraftTypes.writeChunkSection(buf, section);
+            assertEquals(MinecraftTypes.chunkSectionSize(section), buf.readableBytes());
+        } finally {
+            MinecraftTypes.setOptimizePalettesOnWrite(false);
+        }
+
+        // Optimized once, and the written palette is neither modified nor left shared
+        assertSame(palette.toOptimized(), palette.toOptimized());
+        assertTrue(palette.toOptimized().getPalette() instanceof ListPalette);
+        assertSame(storage, palette.getStorage());
+        section.setBlock(0, 0, 0, 8);
+        assertSame(storage, palette.getStorage());
+
+        ChunkSection decoded = MinecraftTypes.readChunkSection(buf);
+        assertEquals(7, decoded.getBlock(1, 0, 0));
+        assertEquals(0, decoded.getBlock(5, 5, 5));
+
+        DataPalette single = new DataPalette(new SingletonPalette(1), null, PaletteType.CHUNK);
+        assertSame(single, single.toOptimized());
+    }
+
+    @Test
+    public void testOffHeapSection() {
+        for (ChunkSection section : chunkSectionsToTest) {
+            OffHeapChunkSection offHeap = OffHeapChunkSection.of(section, ByteBufAllocator.DEFAULT);
+            try {
+                assertEquals(section.getBlock(0, 0, 0), offHeap.getBlock(0, 0, 0));
+                assertEquals(section.getBlock(1, 2, 3), offHeap.getBlock(1, 2, 3));
+                assertEquals(section.getBiome(1, 1, 1), offHeap.getBiome(1, 1, 1));
+                assertEquals(section, offHeap.toChunkSection());
+            } finally {
+                offHeap.release();
+            }
+        }
+    }
+
+    @Test
+    public void testParallelColumnDecoding() {
+        ChunkColumn column = new ChunkColumn(ChunkColumn.sectionCount(384));
+        column.setBlock(0, 0, 0, 1);
+        for (int i = 0; i < 300; i++) {
+            // Enough states for the global palette, so that the slices have different sizes
+            column.setBlock(i & 15, 100 + (i >> 8), i >> 4 & 15, i + 1);
+        }
+        column.setBlock(15, 383, 15, 2);
+
+        ByteBuf buf = Unpooled.buffer();
+        MinecraftTypes.writeChunkColumn(buf, column);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ChunkColumn decoded = MinecraftTypes.readChunkColumn(buf.duplicate(), column.getSectionCount(), pool);
+            assertEquals(column, decoded);
+            assertEquals(MinecraftTypes.readChunkColumn(buf.duplicate(), column.getSectionCount()), decoded);
+
+            ChunkColumn empty = MinecraftTypes.readChunkColumn(Unpooled.EMPTY_BUFFER, 0, pool);
+            assertEquals(0, empty.getSectionCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelColumnDecodingFailure() {
+        ByteBuf buf = Unpooled.buffer();
+        MinecraftTypes.writeChunkSection(buf, new ChunkSection());
+        // A section the pre-scan can skip, but with a block palette that cannot be decoded
+        buf.writeShort(0);
+        buf.writeByte(33);
+        MinecraftTypes.writeVarInt(buf, 0);
+        buf.writeByte(0);
+        MinecraftTypes.writeVarInt(buf, 0);
+        MinecraftTypes.writeVarInt(buf, 0);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertThrows(IllegalArgumentException.class, () -> MinecraftTypes.readChunkColumn(buf, 2, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testOffHeapSectionDuplicateStates() {
+        for (int bitsPerEntry : new int[]{4, 5}) {
+            // Palettes received from the network may map several ids to the same state
+            ByteBuf paletteBuf = Unpooled.buffer();
+            MinecraftTypes.writeVarInt(paletteBuf, 3);
+            MinecraftTypes.writeVarInt(paletteBuf, 5);
+            MinecraftTypes.writeVarInt(paletteBuf, 5);
+            MinecraftTypes.writeVarInt(paletteBuf, 6);
+            Palette palette = bitsPerEntry == 4 ? new ListPalette(bitsPerEntry, paletteBuf) : new MapPalette(bitsPerEntry, paletteBuf);
+
+            BitStorage storage = new BitStorage(bitsPerEntry, PaletteType.CHUNK.getStorageSize());
+            storage.set(1, 1);
+            storage.set(2, 2);
+            ChunkSection section = new ChunkSection(4096, new DataPalette(palette, storage, PaletteType.CHUNK), DataPalette.createForBiome());
+
+            OffHeapChunkSection offHeap = OffHeapChunkSection.of(section, ByteBufAllocator.DEFAULT);
+            try {
+                ChunkSection copy = offHeap.toChunkSection();
+                assertEquals(section, copy);
+                assertEquals(5, copy.getBlock(1, 0, 0));
+                assertEquals(6, copy.getBlock(2, 0, 0));
+            } finally {
+                offHeap.release();
+            }
+        }
+    }
 }
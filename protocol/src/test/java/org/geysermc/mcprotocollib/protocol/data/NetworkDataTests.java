@@ -2,11 +2,29 @@ package org.geysermc.mcprotocollib.protocol.data;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import net.kyori.adventure.text.Component;
 import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
+import org.geysermc.mcprotocollib.protocol.data.game.chat.LazyComponent;
 import org.geysermc.mcprotocollib.protocol.data.game.entity.Effect;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.EntityMetadataSet;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.MetadataType;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.Pose;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.metadata.type.ObjectEntityMetadata;
+import org.geysermc.mcprotocollib.protocol.data.game.item.ItemStack;
+import org.geysermc.mcprotocollib.protocol.data.game.item.ItemStackCache;
+import org.geysermc.mcprotocollib.protocol.data.game.item.component.DataComponentType;
+import org.geysermc.mcprotocollib.protocol.data.game.item.component.DataComponents;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.OptionalInt;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Miscellaneous tests for reading and writing classes to/from the network
@@ -22,4 +40,166 @@ public class NetworkDataTests {
             assertEquals(effect, MinecraftTypes.readEffect(buf));
         }
     }
+
+    @Test
+    public void testLazyComponent() {
+        Component component = Component.text("Hello").append(Component.text(" world"));
+        ByteBuf buf = Unpooled.buffer();
+        MinecraftTypes.writeComponent(buf, component);
+
+        LazyComponent lazy = MinecraftTypes.readLazyComponent(buf);
+        assertEquals(LazyComponent.of(component).hashCode(), lazy.hashCode());
+        assertEquals(LazyComponent.of(component), lazy);
+        assertFalse(lazy.isMaterialized());
+        assertEquals(component, lazy.get());
+
+        // An int array tag claiming more elements than there are bytes
+        ByteBuf hostile = Unpooled.buffer();
+        hostile.writeByte(11);
+        hostile.writeInt(0x40000001);
+        assertThrows(IllegalArgumentException.class, () -> MinecraftTypes.readLazyComponent(hostile));
+    }
+
+    @Test
+    public void testEntityMetadataSet() {
+        EntityMetadataSet metadata = new EntityMetadataSet();
+        metadata.setByte(0, MetadataType.BYTE, (byte) 0x20);
+        metadata.setInt(1, MetadataType.INT, 300);
+        metadata.setBoolean(4, MetadataType.BOOLEAN, true);
+        metadata.set(6, MetadataType.POSE, Pose.SNEAKING);
+        metadata.setFloat(9, MetadataType.FLOAT, 20.0f);
+        metadata.set(20, MetadataType.OPTIONAL_VARINT, OptionalInt.of(3));
+
+        ByteBuf buf = Unpooled.buffer();
+        MinecraftTypes.writeEntityMetadataSet(buf, metadata);
+        ByteBuf arrayBuf = Unpooled.buffer();
+        MinecraftTypes.writeEntityMetadata(arrayBuf, metadata.toArray());
+        assertEquals(arrayBuf, buf);
+
+        EntityMetadataSet read = MinecraftTypes.readEntityMetadataSet(buf);
+        assertEquals(metadata, read);
+        assertEquals(300, read.getInt(1));
+        assertEquals(Pose.SNEAKING, read.getValue(6));
+
+        EntityMetadataSet changed = new EntityMetadataSet(read);
+        changed.setFloat(9, MetadataType.FLOAT, 15.5f);
+        changed.setInt(1, MetadataType.INT, 300);
+        EntityMetadataSet diff = changed.diff(metadata);
+        assertEquals(9, diff.nextIndex(0));
+        assertEquals(1, diff.size());
+        assertFalse(metadata.equals(changed));
+
+        metadata.merge(diff);
+        assertEquals(changed, metadata);
+        assertEquals(300, EntityMetadataSet.of(new ObjectEntityMetadata<>(1, MetadataType.INT, 300)).getInt(1));
+    }
+
+    @Test
+    public void testEntityMetadataSetNullObjects() {
+        EntityMetadataSet metadata = new EntityMetadataSet();
+        metadata.set(2, MetadataType.OPTIONAL_CHAT, null);
+
+        // Neither the diff nor the merged set has other object values
+        EntityMetadataSet diff = metadata.diff(new EntityMetadataSet());
+        assertEquals(1, diff.size());
+        assertNull(diff.getValue(2));
+        assertEquals(new ObjectEntityMetadata<>(2, MetadataType.OPTIONAL_CHAT, null), diff.get(2));
+
+        EntityMetadataSet merged = new EntityMetadataSet();
+        merged.setInt(1, MetadataType.INT, 5);
+        merged.merge(metadata);
+        assertNull(merged.getValue(2));
+        assertEquals(2, merged.toArray().length);
+        assertEquals(metadata, diff);
+    }
+
+    @Test
+    public void testDataComponents() {
+        DataComponents components = new DataComponents();
+        components.put(DataComponentType.CUSTOM_NAME, Component.text("Test"));
+        components.put(DataComponentType.DAMAGE, 5);
+        components.put(DataComponentType.MAX_STACK_SIZE, 16);
+
+        ByteBuf buf = Unpooled.buffer();
+        MinecraftTypes.writeDataComponentPatch(buf, components);
+        assertEquals(components, MinecraftTypes.readDataComponentPatch(buf));
+
+        DataComponents clone = components.clone();
+        clone.put(DataComponentType.DAMAGE, 6);
+        clone.getDataComponents().remove(DataComponentType.MAX_STACK_SIZE);
+        assertEquals(5, (int) components.get(DataComponentType.DAMAGE));
+        assertEquals(6, (int) clone.get(DataComponentType.DAMAGE));
+        assertTrue(components.contains(DataComponentType.MAX_STACK_SIZE));
+        assertEquals(3, components.size());
+        assertEquals(2, clone.size());
+        assertFalse(components.equals(clone));
+
+        // Modifying the original does not change its copies
+        DataComponents unmodifiable = components.unmodifiableCopy();
+        DataComponents unmodifiableClone = unmodifiable.clone();
+        components.put(DataComponentType.DAMAGE, 7);
+        components.remove(DataComponentType.CUSTOM_NAME);
+        assertEquals(5, (int) unmodifiable.get(DataComponentType.DAMAGE));
+        assertEquals(3, unmodifiable.size());
+        assertEquals(6, (int) clone.get(DataComponentType.DAMAGE));
+
+        unmodifiableClone.put(DataComponentType.DAMAGE, 8);
+        assertEquals(5, (int) unmodifiable.get(DataComponentType.DAMAGE));
+        assertEquals(8, (int) unmodifiableClone.get(DataComponentType.DAMAGE));
+    }
+
+    @Test
+    public void testItemStackCache() {
+        DataComponents components = new DataComponents();
+        components.put(DataComponentType.DAMAGE, 5);
+        ItemStack stack = new ItemStack(1, 32, components);
+
+        ByteBuf buf = Unpooled.buffer();
+        MinecraftTypes.writeItemStack(buf, stack);
+        MinecraftTypes.writeItemStack(buf, stack);
+        MinecraftTypes.writeItemStack(buf, new ItemStack(1, 64, components));
+
+        MinecraftTypes.setItemStackCache(new ItemStackCache());
+        try {
+            ItemStack first = MinecraftTypes.readItemStack(buf);
+            ItemStack second = MinecraftTypes.readItemStack(buf);
+            ItemStack third = MinecraftTypes.readItemStack(buf);
+            assertEquals(stack, first);
+            assertSame(first, second);
+            assertSame(first.getDataComponents(), third.getDataComponents());
+            assertThrows(UnsupportedOperationException.class, () -> first.getDataComponents().put(DataComponentType.DAMAGE, 6));
+            assertTrue(first.getDataComponents().clone().isModifiable());
+        } finally {
+            MinecraftTypes.setItemStackCache(null);
+        }
+    }
+
+    @Test
+    public void testItemStackCacheNestedItems() {
+        DataComponents inner = new DataComponents();
+        inner.put(DataComponentType.DAMAGE, 3);
+        DataComponents outer = new DataComponents();
+        outer.put(DataComponentType.CONTAINER, List.of(new ItemStack(2, 1, inner), new ItemStack(2, 1, inner)));
+        ItemStack stack = new ItemStack(1, 1, outer);
+
+        ByteBuf buf = Unpooled.buffer();
+        MinecraftTypes.writeItemStack(buf, stack);
+        MinecraftTypes.writeItemStack(buf, stack);
+
+        MinecraftTypes.setItemStackCache(new ItemStackCache());
+        try {
+            ItemStack first = MinecraftTypes.readItemStack(buf);
+            ItemStack second = MinecraftTypes.readItemStack(buf);
+            assertEquals(stack, first);
+            assertSame(first, second);
+
+            // Nested items are interned before the item holding them
+            List<ItemStack> contents = first.getDataComponents().get(DataComponentType.CONTAINER);
+            assertSame(contents.get(0), contents.get(1));
+            assertFalse(contents.get(0).getDataComponents().isModifiable());
+            assertEquals(stack.hashCode(), first.hashCode());
+        } finally {
+            MinecraftTypes.setItemStackCache(null);
+        }
+    }
 }
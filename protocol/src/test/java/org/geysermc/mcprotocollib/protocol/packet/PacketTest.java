@@ -23,6 +23,11 @@ public abstract class PacketTest {
             ByteBuf buf = Unpooled.buffer();
             packet.serialize(buf);
 
+            int estimatedSize = packet.estimateSize();
+            if (estimatedSize >= 0) {
+                assertEquals(buf.readableBytes(), estimatedSize, "Estimated size does not match serialized size of " + packet);
+            }
+
             Packet decoded = this.createPacket(packet.getClass(), buf);
 
             assertEquals(packet, decoded, "Decoded packet does not match original: " + packet + " vs " + decoded);
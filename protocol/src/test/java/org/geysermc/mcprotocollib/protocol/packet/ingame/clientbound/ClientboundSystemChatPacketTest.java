@@ -0,0 +1,17 @@
+package org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.geysermc.mcprotocollib.protocol.packet.PacketTest;
+import org.junit.jupiter.api.BeforeEach;
+
+public class ClientboundSystemChatPacketTest extends PacketTest {
+
+    @BeforeEach
+    public void setup() {
+        this.setPackets(
+                new ClientboundSystemChatPacket(Component.text("Hello!"), false),
+                new ClientboundSystemChatPacket(Component.text("Hello ").append(Component.text("world", NamedTextColor.RED)), true)
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity;
+
+import org.cloudburstmc.math.vector.Vector3d;
+import org.geysermc.mcprotocollib.protocol.packet.PacketTest;
+import org.junit.jupiter.api.BeforeEach;
+
+public class ClientboundEntityPositionSyncPacketTest extends PacketTest {
+    @BeforeEach
+    public void setup() {
+        this.setPackets(
+                new ClientboundEntityPositionSyncPacket(1, Vector3d.from(1000.123, -64, 0.5), Vector3d.ZERO, 12.5f, -90, true),
+                new ClientboundEntityPositionSyncPacket(300, Vector3d.ZERO, Vector3d.from(0.1, 0.2, -0.3), 0, 0, false)
+        );
+    }
+}
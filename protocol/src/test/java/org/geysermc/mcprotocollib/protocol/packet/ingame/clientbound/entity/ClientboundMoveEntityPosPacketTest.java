@@ -0,0 +1,14 @@
+package org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity;
+
+import org.geysermc.mcprotocollib.protocol.packet.PacketTest;
+import org.junit.jupiter.api.BeforeEach;
+
+public class ClientboundMoveEntityPosPacketTest extends PacketTest {
+    @BeforeEach
+    public void setup() {
+        this.setPackets(
+                new ClientboundMoveEntityPosPacket(1, 0.5, -1.25, 1 / 4096D, true),
+                new ClientboundMoveEntityPosPacket(Integer.MAX_VALUE, 7.75, 0, -8, false)
+        );
+    }
+}
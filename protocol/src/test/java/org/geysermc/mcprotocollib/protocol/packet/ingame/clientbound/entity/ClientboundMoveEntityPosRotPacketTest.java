@@ -0,0 +1,14 @@
+package org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity;
+
+import org.geysermc.mcprotocollib.protocol.packet.PacketTest;
+import org.junit.jupiter.api.BeforeEach;
+
+public class ClientboundMoveEntityPosRotPacketTest extends PacketTest {
+    @BeforeEach
+    public void setup() {
+        this.setPackets(
+                new ClientboundMoveEntityPosRotPacket(1, 0.5, -1.25, 1 / 4096D, 90, -45, true),
+                new ClientboundMoveEntityPosRotPacket(300, 0, 0, 0, 0, 0, false)
+        );
+    }
+}
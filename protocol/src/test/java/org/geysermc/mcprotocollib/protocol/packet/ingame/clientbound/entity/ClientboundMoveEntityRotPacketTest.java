@@ -0,0 +1,14 @@
+package org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity;
+
+import org.geysermc.mcprotocollib.protocol.packet.PacketTest;
+import org.junit.jupiter.api.BeforeEach;
+
+public class ClientboundMoveEntityRotPacketTest extends PacketTest {
+    @BeforeEach
+    public void setup() {
+        this.setPackets(
+                new ClientboundMoveEntityRotPacket(1, 90, -45, true),
+                new ClientboundMoveEntityRotPacket(300, -180, 1.40625f, false)
+        );
+    }
+}
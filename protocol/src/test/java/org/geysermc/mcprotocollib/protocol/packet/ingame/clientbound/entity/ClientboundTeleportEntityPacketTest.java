@@ -0,0 +1,20 @@
+package org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.entity;
+
+import org.cloudburstmc.math.vector.Vector3d;
+import org.geysermc.mcprotocollib.protocol.data.game.entity.player.PositionElement;
+import org.geysermc.mcprotocollib.protocol.packet.PacketTest;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ClientboundTeleportEntityPacketTest extends PacketTest {
+    @BeforeEach
+    public void setup() {
+        this.setPackets(
+                new ClientboundTeleportEntityPacket(1, Vector3d.from(1000.123, -64, 0.5), Vector3d.ZERO, 12.5f, -90, Collections.emptyList(), true),
+                new ClientboundTeleportEntityPacket(300, Vector3d.ZERO, Vector3d.from(0.1, 0.2, -0.3), 0, 0,
+                        List.of(PositionElement.X, PositionElement.Y_ROT, PositionElement.ROTATE_DELTA), false)
+        );
+    }
+}
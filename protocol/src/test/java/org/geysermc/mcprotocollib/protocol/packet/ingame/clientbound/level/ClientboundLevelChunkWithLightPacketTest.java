@@ -1,18 +1,39 @@
 package org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.cloudburstmc.nbt.NbtMap;
+import org.geysermc.mcprotocollib.protocol.codec.MinecraftTypes;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.ChunkColumn;
+import org.geysermc.mcprotocollib.protocol.data.game.level.LightSection;
 import org.geysermc.mcprotocollib.protocol.data.game.level.LightUpdateData;
 import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockEntityInfo;
 import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockEntityType;
 import org.geysermc.mcprotocollib.protocol.packet.PacketTest;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 
 import java.util.BitSet;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ClientboundLevelChunkWithLightPacketTest extends PacketTest {
     @BeforeEach
     public void setup() {
+        ChunkColumn column = new ChunkColumn(ChunkColumn.sectionCount(384));
+        column.setBlock(1, 70, 2, 10);
+        column.setBlock(15, 383, 15, 20);
+
+        LightSection light = LightSection.create();
+        light.set(1, 2, 3, 7);
+
         this.setPackets(
                 new ClientboundLevelChunkWithLightPacket(0, 0,
                         new byte[0], NbtMap.EMPTY, new BlockEntityInfo[0],
@@ -22,7 +43,76 @@ public class ClientboundLevelChunkWithLightPacketTest extends PacketTest {
                         new byte[256], NbtMap.EMPTY, new BlockEntityInfo[]{
                         new BlockEntityInfo(1, 0, 1, BlockEntityType.CHEST, null)
                 }, new LightUpdateData(new BitSet(), new BitSet(), new BitSet(), new BitSet(), Collections.emptyList(), Collections.emptyList())
+                ),
+                new ClientboundLevelChunkWithLightPacket(2, 2,
+                        column, NbtMap.EMPTY, new BlockEntityInfo[0],
+                        new LightUpdateData(new BitSet(), new BitSet(), new BitSet(), new BitSet(), Collections.emptyList(), Collections.emptyList())
+                ),
+                new ClientboundLevelChunkWithLightPacket(3, 3,
+                        new byte[0], NbtMap.EMPTY, new BlockEntityInfo[0],
+                        new LightUpdateData(BitSet.valueOf(new long[]{6}), BitSet.valueOf(new long[]{2}), new BitSet(), new BitSet(),
+                                List.of(LightSection.full(), light), List.of(LightSection.create()))
                 )
         );
     }
+
+    @Test
+    public void testColumnRoundTrip() {
+        ChunkColumn column = new ChunkColumn(ChunkColumn.sectionCount(384));
+        column.setBlock(3, 0, 4, 5);
+        column.setBlock(8, 200, 8, 6);
+
+        ClientboundLevelChunkWithLightPacket packet = new ClientboundLevelChunkWithLightPacket(0, 0,
+                column, NbtMap.EMPTY, new BlockEntityInfo[0],
+                new LightUpdateData(new BitSet(), new BitSet(), new BitSet(), new BitSet(), Collections.emptyList(), Collections.emptyList())
+        );
+        ClientboundLevelChunkWithLightPacket encoded = packet.withChunkData(packet.getChunkData());
+
+        assertEquals(column, encoded.readColumn(column.getSectionCount()));
+        assertEquals(column, encoded.readColumn(column.getSectionCount(), ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void testColumnEncodedOnce() {
+        ChunkColumn column = new ChunkColumn(ChunkColumn.sectionCount(384));
+        column.setBlock(3, 0, 4, 5);
+
+        ClientboundLevelChunkWithLightPacket packet = new ClientboundLevelChunkWithLightPacket(0, 0,
+                column, NbtMap.EMPTY, new BlockEntityInfo[0],
+                new LightUpdateData(new BitSet(), new BitSet(), new BitSet(), new BitSet(), Collections.emptyList(), Collections.emptyList())
+        );
+        assertSame(packet.getChunkData(), packet.getChunkData());
+        assertEquals(packet, packet.withChunkData(packet.getChunkData()));
+
+        // The column of the packet is not handed out
+        ChunkColumn read = packet.readColumn(column.getSectionCount());
+        read.setBlock(3, 0, 4, 6);
+        assertEquals(5, packet.getColumn().getBlock(3, 0, 4));
+        assertNotEquals(column, read);
+    }
+
+    @Test
+    public void testUniformLightSections() {
+        byte[] full = LightSection.full().getData();
+        ByteBuf buf = Unpooled.buffer();
+        MinecraftTypes.writeByteArray(buf, full);
+        MinecraftTypes.writeByteArray(buf, new byte[LightSection.SIZE]);
+        assertSame(LightSection.full(), MinecraftTypes.readLightSection(buf));
+        assertSame(LightSection.empty(), MinecraftTypes.readLightSection(buf));
+        assertSame(LightSection.full(), LightSection.copyOf(full));
+
+        // The arrays of the shared sections are not handed out
+        full[0] = 0;
+        assertEquals(15, LightSection.full().get(0, 0, 0));
+
+        LightUpdateData data = LightUpdateData.ofArrays(BitSet.valueOf(new long[]{2}), new BitSet(), new BitSet(), new BitSet(),
+                List.of(new byte[LightSection.SIZE]), List.of(full));
+        MinecraftTypes.writeLightUpdateData(buf, data);
+        LightUpdateData decoded = MinecraftTypes.readLightUpdateData(buf);
+        assertEquals(data, decoded);
+        assertSame(LightSection.empty(), decoded.getSkyLight(0));
+        assertTrue(decoded.getBlockLight(0).isModifiable());
+        assertThrows(UnsupportedOperationException.class, () -> decoded.getSkyLight(0).set(1, 2, 3, 7));
+        assertEquals(0, LightSection.empty().get(1, 2, 3));
+    }
 }
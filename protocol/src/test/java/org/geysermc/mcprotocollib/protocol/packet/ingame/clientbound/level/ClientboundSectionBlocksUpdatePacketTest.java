@@ -10,7 +10,10 @@ public class ClientboundSectionBlocksUpdatePacketTest extends PacketTest {
     @BeforeEach
     public void setup() {
         this.setPackets(
-                new ClientboundSectionBlocksUpdatePacket(3, 4, 12, new BlockChangeEntry(Vector3i.from(50, 65, 200), 3))
+                new ClientboundSectionBlocksUpdatePacket(3, 4, 12, new BlockChangeEntry(Vector3i.from(50, 65, 200), 3)),
+                new ClientboundSectionBlocksUpdatePacket(-1, -4, 7,
+                        new short[]{ClientboundSectionBlocksUpdatePacket.packPosition(0, 0, 0), ClientboundSectionBlocksUpdatePacket.packPosition(15, 15, 15)},
+                        new int[]{1, 30000})
         );
     }
 